@@ -3,8 +3,13 @@ package com.amynna.OriginBootstrap;
 import com.amynna.Tools.*;
 
 import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.PrivateKey;
 import java.security.PublicKey;
+import java.util.Map;
 
 /**
  * Point d'entrée du BootStrap de l'application.
@@ -51,6 +56,100 @@ public final class App {
         KeyUtil.sign(file, privateKey);
     }
 
+    /**
+     * Regroupe les fichiers d'un répertoire dans un paquet signé, à publier sur le serveur.
+     * @param args Arguments de la ligne de commande.
+     */
+    private void pack(String ... args) {
+        if (args.length != 5) {
+            Logger.log("Usage: pack <directory> <onServerPrefix> <packFile> <keyAlias>");
+            return;
+        }
+
+        String password = Asker.askPassword();
+        PrivateKey privateKey = KeyUtil.loadPrivateKey(args[4], password);
+        if (privateKey == null) return;
+
+        PackFile.create(new File(args[1]), args[2], new File(args[3]), privateKey);
+    }
+
+    /**
+     * Génère et signe le manifeste (chemin, taille et SHA-512 de chaque fichier) d'un répertoire du serveur.
+     * Les clients n'acceptent que le manifeste signé avec la Master Key.
+     * @param args Arguments de la ligne de commande.
+     */
+    private void manifest(String ... args) {
+        if (args.length != 3) {
+            Logger.log("Usage: manifest <repoDirectory> <keyAlias>");
+            return;
+        }
+
+        String password = Asker.askPassword();
+        PrivateKey privateKey = KeyUtil.loadPrivateKey(args[2], password);
+        if (privateKey == null) return;
+
+        ServerManifest.create(new File(args[1]), privateKey);
+    }
+
+    /**
+     * Signe en parallèle tous les fichiers d'un répertoire du serveur ; seuls les fichiers modifiés depuis
+     * la dernière signature sont resignés. Les signatures sont écrites dans {@code <repoDirectory>/signatures/}.
+     * @param args Arguments de la ligne de commande.
+     */
+    private void signAll(String ... args) {
+        if (args.length != 3) {
+            Logger.log("Usage: signAll <repoDirectory> <keyAlias>");
+            return;
+        }
+
+        String password = Asker.askPassword();
+        PrivateKey privateKey = KeyUtil.loadPrivateKey(args[2], password);
+        if (privateKey == null) return;
+
+        File repoDir = new File(args[1]);
+        BatchSigner.signAll(repoDir, new File(repoDir, "signatures"), privateKey);
+    }
+
+    /**
+     * Génère les cartes de blocs des fichiers donnés, pour les mises à jour différentielles.
+     * @param args Arguments de la ligne de commande.
+     */
+    private void blockMap(String ... args) {
+        if (args.length < 2) {
+            Logger.log("Au moins un fichier est requis. Usage: blockmap <filePath> [filePath...]");
+            return;
+        }
+
+        for (int i = 1; i < args.length; i++) DeltaSync.writeBlockMap(new File(args[i]));
+    }
+
+    /**
+     * Affiche les hachages SHA-1, SHA-256 et SHA-512 des fichiers donnés (une seule lecture par fichier),
+     * avec le débit obtenu.
+     * @param args Arguments de la ligne de commande.
+     */
+    private void hash(String ... args) {
+        if (args.length < 2) {
+            Logger.log("Au moins un fichier est requis. Usage: hash <filePath> [filePath...]");
+            return;
+        }
+
+        for (int i = 1; i < args.length; i++) {
+            Path file = Path.of(args[i]);
+            try {
+                long start = System.nanoTime();
+                Map<String, String> hashes = Hasher.hash(file, FileManager.SHA1, FileManager.SHA256, FileManager.SHA512);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                double mib = Files.size(file) / (1024.0 * 1024.0);
+
+                Logger.log(file + String.format(" (%.1f Mio en %.2f s, %.0f Mio/s)", mib, seconds, mib / seconds));
+                hashes.forEach((algorithm, hash) -> Logger.log("  " + algorithm + " : " + hash));
+            } catch (IOException e) {
+                Logger.error("Impossible de hacher " + file + " : " + e.getMessage());
+            }
+        }
+    }
+
     /**
      * Vérifie la signature d'un fichier avec une clé publique.
      * @param args Arguments de la ligne de commande.
@@ -112,6 +211,37 @@ public final class App {
         KeyUtil.changeKeyStorePassword(password);
     }
 
+    /**
+     * Lance le proxy de cache du site et le laisse tourner jusqu'à l'arrêt du processus.
+     * L'adresse d'écoute peut être limitée à l'interface du réseau local (ex. {@code 192.168.1.10}).
+     * @param args Arguments de la ligne de commande.
+     */
+    private void proxy(String ... args) {
+        int port = AppProperties.PROXY_DEFAULT_PORT;
+        if (args.length >= 2) {
+            try {
+                port = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                Logger.log("Port invalide. Usage: proxy [port] [bindAddress]");
+                return;
+            }
+        }
+        String bindAddress = args.length >= 3 ? args[2] : AppProperties.PROXY_BIND_ADDRESS;
+
+        try {
+            CachingProxy proxy = new CachingProxy(new InetSocketAddress(bindAddress, port), AppProperties.PROXY_CACHE_DIR.toPath(),
+                    AppProperties.PROXY_CACHE_MAX_SIZE, CachingProxy.ALLOWED_ORIGINS);
+            Runtime.getRuntime().addShutdownHook(new Thread(proxy::stop));
+            proxy.start();
+            Logger.log("Sur les autres machines : -D" + HttpTransport.PROXY_PROPERTY + "=http://<cette machine>:" + proxy.getPort() + "/");
+            Thread.currentThread().join(); // Tourne jusqu'à Ctrl+C
+        } catch (IOException e) {
+            Logger.fatal("Impossible de démarrer le proxy de cache : " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private void version() {
         Logger.version();
     }
@@ -125,10 +255,16 @@ public final class App {
                 "  genKeys <alias>                      : Génère une paire de clés publique/privée avec l'alias spécifié.\n" +
                 "  showKey <keyAlias>                   : Affiche la clé publique associée à l'alias donné.\n" +
                 "  sign <filePath> <keyAlias>           : Signe le fichier spécifié avec la clé privée associée à l'alias donné.\n" +
+                "  signAll <repoDir> <keyAlias>         : Signe les fichiers modifiés du dépôt, en parallèle (signatures dans signatures/).\n" +
                 "  verify <filePath> <signaturePath>    : Vérifie la signature du fichier avec la signature fournie.\n" +
+                "  pack <dir> <prefix> <pack> <keyAlias>: Crée un paquet signé des fichiers du répertoire (ex. prefix modpack/mods/).\n" +
+                "  manifest <repoDir> <keyAlias>        : Génère et signe (Master Key) le manifeste des fichiers du dépôt (ex. v1/).\n" +
+                "  blockmap <filePath> [filePath...]    : Génère les cartes de blocs (.zsync) des mises à jour différentielles.\n" +
+                "  hash <filePath> [filePath...]        : Affiche les hachages SHA-1, SHA-256 et SHA-512 des fichiers.\n" +
                 "  delKey <keyAlias>                    : Supprime la paire de clés associée à l'alias donné.\n" +
                 "  listKeys                             : Liste toutes les clés stockées dans le keystore.\n" +
                 "  changePassword                       : Change le mot de passe du keystore.\n" +
+                "  proxy [port] [bindAddress]           : Lance le proxy de cache pour les autres machines du site.\n" +
                 "  help                                 : Affiche cette aide."
 
         );
@@ -162,12 +298,18 @@ public final class App {
             case "genKeys", "gen" -> app.genKeys(args);
             case "showKey" -> app.showKey(args);
             case "sign" -> app.sign(args);
+            case "signAll" -> app.signAll(args);
             case "verify" -> app.verify(args);
+            case "pack" -> app.pack(args);
+            case "manifest" -> app.manifest(args);
+            case "blockmap" -> app.blockMap(args);
+            case "hash" -> app.hash(args);
             case "delKey", "del" -> app.delKey(args);
             case "listKeys", "list", "ls" -> app.listKeys();
             case "changePassword", "passwd", "pass" -> app.changePassword();
             case "help" -> app.help();
             case "version" -> app.version();
+            case "proxy" -> app.proxy(args);
             default -> Logger.log("Commande inconnue. Utilisez 'help' pour voir les commandes disponibles.");
         }
 
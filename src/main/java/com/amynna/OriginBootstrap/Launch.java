@@ -19,6 +19,11 @@ public final class Launch {
      */
     private final String launcherName = AppProperties.APP_NAME + "_Launcher-" + AppProperties.APP_VERSION + ".jar";
 
+    /**
+     * Préfixe des propriétés système de configuration, transmises au launcher.
+     */
+    private static final String CONFIG_PROPERTY_PREFIX = "originrp.";
+
     /**
      * Méthode principale pour vérifier et lancer le launcher.
      */
@@ -29,6 +34,9 @@ public final class Launch {
         // Vérifier la présence du launcher et sa version
         if (!checkLauncher() || !checkVersion()) installLauncher();
 
+        // Signatures vérifiées ici, enregistrées avant de passer la main au launcher
+        SignatureCache.save();
+
         runLauncher(); // Lancer le launcher
 
     }
@@ -41,6 +49,10 @@ public final class Launch {
         List<String> cmd = new LinkedList<String>();
 
         cmd.add(AppProperties.foundJava());
+        // Transmet la configuration du launcher (proxy de cache, débits, etc.)
+        for (String property : System.getProperties().stringPropertyNames()) {
+            if (property.startsWith(CONFIG_PROPERTY_PREFIX)) cmd.add("-D" + property + "=" + System.getProperty(property));
+        }
         cmd.add("-jar");
         cmd.add(AppProperties.LAUNCHER_ROOT.getPath() + File.separator + launcherName);
         cmd.add("launch");
@@ -69,6 +81,7 @@ public final class Launch {
     private void checkRootDir() {
         FileManager.createDirectoriesIfNotExist(AppProperties.LAUNCHER_ROOT.getPath());
         FileManager.createDirectoriesIfNotExist(AppProperties.TEMP_DIR.getPath());
+        FileManager.createDirectoriesIfNotExist(AppProperties.CACHE_DIR.getPath());
     }
 
     /**
@@ -81,6 +94,10 @@ public final class Launch {
         File launcherFile = new File(AppProperties.LAUNCHER_ROOT.getPath() + File.separator + launcherName);
         File signatureFile = KeyUtil.getSignatureFile(launcherName);
 
+        // Launcher couvert par le manifeste signé du serveur : contrôle par hachage
+        PackFile.Entry entry = ServerManifest.get(launcherName);
+        if (entry != null) return ServerManifest.verify(entry, launcherFile);
+
         SignedFile signedLauncher = new SignedFile(launcherFile, signatureFile);
 
         // vérifier l'existence des fichiers
@@ -101,7 +118,7 @@ public final class Launch {
 
         // Télécharger le fichier de propriétés depuis le serveur
         String onServerFileName = AppProperties.APP_NAME + ".json";
-        SignedFile propertiesFile = FileManager.downloadAndValidateFile(onServerFileName, AppProperties.TEMP_DIR.getPath() + File.separator + onServerFileName);
+        SignedFile propertiesFile = FileManager.downloadAndValidateFile(onServerFileName, AppProperties.CACHE_DIR.getPath() + File.separator + onServerFileName);
         assert propertiesFile != null;
 
         // Lire le fichier de propriétés
@@ -136,11 +153,10 @@ public final class Launch {
     }
 
     private void installLauncher() {
-        FileManager.deleteFileIfExists(new File(AppProperties.LAUNCHER_ROOT + launcherName));
-
-        SignedFile launcher = FileManager.downloadAndValidateFile(launcherName, AppProperties.LAUNCHER_ROOT.getPath() + File.separator + launcherName);
+        // L'ancienne version est conservée : elle sert de base à la mise à jour différentielle
+        SignedFile launcher = FileManager.downloadAndValidateFile(launcherName, AppProperties.LAUNCHER_ROOT.getPath() + File.separator + launcherName, true);
 
-        if (launcher == null || !launcher.exists()) {
+        if (launcher == null || !launcher.file().exists()) {
             Logger.fatal("Le téléchargement du launcher a échoué.");
         } else {
             Logger.log("Le launcher a été téléchargé avec succès.");
@@ -5,6 +5,7 @@ import com.amynna.Tools.AppProperties;
 import com.amynna.Tools.Asker;
 import com.amynna.Tools.FileManager;
 import com.amynna.Tools.Logger;
+import com.amynna.Tools.VerificationIndex;
 
 /**
  * la classe principale {@code App} du Launcher. Elle gère le cycle de vie de l'application,
@@ -82,6 +83,8 @@ public final class App {
         FileManager.createDirectoriesIfNotExist(AppProperties.LAUNCHER_ROOT.getAbsolutePath());
         FileManager.deleteFileIfExists(AppProperties.TEMP_DIR); // Nettoie le répertoire
         FileManager.createDirectoriesIfNotExist(AppProperties.TEMP_DIR.getAbsolutePath());
+        FileManager.createDirectoriesIfNotExist(AppProperties.DOWNLOADS_DIR.getAbsolutePath());
+        FileManager.createDirectoriesIfNotExist(AppProperties.CACHE_DIR.getAbsolutePath());
         FileManager.createDirectoriesIfNotExist(AppProperties.SIGNATURE_DIR.getAbsolutePath());
         FileManager.createDirectoriesIfNotExist(AppProperties.MINECRAFT_DIR.getAbsolutePath());
         FileManager.createDirectoriesIfNotExist(AppProperties.MINECRAFT_VERSION_DIR.getAbsolutePath());
@@ -157,6 +160,10 @@ public final class App {
      */
     private void verifyInstallation() {
         Logger.log(Logger.PURPLE + "[CALL] Vérification de l'installation du jeu...");
+        // Par défaut, les fichiers inchangés depuis leur dernière vérification ne sont pas rehachés
+        if (System.getProperty("originrp.deepCheck") == null) {
+            VerificationIndex.setDeepCheck(Asker.confirmAction("Vérification approfondie (recalculer tous les hachages) ?"));
+        }
         gameSetup.checkInstallation();
     }
 
@@ -1,13 +1,21 @@
 package com.amynna.OriginLauncher.setup;
 
 import com.amynna.Tools.AppProperties;
+import com.amynna.Tools.DownloadScheduler;
 import com.amynna.Tools.FileManager;
 import com.amynna.Tools.Logger;
+import com.amynna.Tools.ParallelVerifier;
+import com.amynna.Tools.VerificationIndex;
 import org.json.JSONObject;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Classe responsable de la gestion des assets Minecraft.
@@ -19,6 +27,9 @@ public class AssetManager {
     /** Base URL pour le téléchargement des assets */
     public static final String ASSETS_URL_BASE = "https://resources.download.minecraft.net/";
 
+    /** Préfixe des assets dont le téléchargement peut être différé (sons). */
+    private static final String DEFERRABLE_ASSETS_PREFIX = "minecraft/sounds/";
+
     /** Valeur des assets (pour le lancement) */
     public final String assets;
     /** Index des assets */
@@ -41,22 +52,20 @@ public class AssetManager {
          */
         public String getDownloadUrl() {
             String hashPrefix = hash.substring(0, 2);
-            return ASSETS_URL_BASE + hashPrefix + File.separator + hash;
+            return ASSETS_URL_BASE + hashPrefix + "/" + hash;
         }
 
         /** Télécharge l'asset et vérifie son SHA-1 (hash). */
-        public void download() {
+        public File download() {
             String downloadUrl = getDownloadUrl();
-            FileManager.downloadFileAndVerifySha(downloadUrl, file.getPath(), hash, FileManager.SHA1);
+            return FileManager.downloadFileAndVerifySha(downloadUrl, file.getPath(), hash, FileManager.SHA1, size);
         }
 
         /** Vérifie l'intégrité de l'asset en comparant le hash (SHA-1). */
         public boolean check() {
             if (!lightCheck()) return false;
             // Le hash des assets est bien un SHA-1
-            String fileSha1 = FileManager.calculSHA(file, FileManager.SHA1);
-            assert fileSha1 != null;
-            return fileSha1.equals(hash);
+            return VerificationIndex.verify(file, hash, FileManager.SHA1);
         }
 
         /** Vérifie si le fichier existe et si sa taille correspond. */
@@ -158,32 +167,44 @@ public class AssetManager {
     // ---[ MÉTHODES PUBLIQUES ]----
 
     /**
-     * Télécharge tous les assets qui ne sont pas encore présents ou corrompus.
+     * Planifie le téléchargement de tous les assets qui ne sont pas encore présents ou corrompus.
+     * Les sons sont différables, les autres assets sont nécessaires en jeu.
+     * @param batch Lot de téléchargements auquel ajouter les assets.
      */
-    public void downloadAllAssets() {
+    public void queueAllAssets(DownloadScheduler.Batch batch) {
+        // Plusieurs noms peuvent partager le même objet : un seul téléchargement par hash
+        Set<String> queuedHashes = new HashSet<>();
         for (AssetObject asset : assetObjects) {
-            if (!asset.lightCheck()) asset.download();
+            if (asset.lightCheck() || !queuedHashes.add(asset.hash)) continue;
+            batch.submit(asset.name, getPriority(asset), asset::download);
         }
     }
 
     /**
-     * Vérifie l'intégrité de tous les assets.
-     * Retélécharge ceux qui sont corrompus.
+     * Détermine la priorité de téléchargement d'un asset.
+     * @param asset L'asset.
+     * @return {@code DEFERRABLE} pour les sons, {@code GAMEPLAY} sinon.
      */
-    public void checkAllAssets() {
-        int processSize = 0;
-        for (AssetObject asset : assetObjects) {
-            Logger.logc("Vérification de l'Asset: " + asset.name + " ... ");
-            if (!asset.check()) {
-                Logger.log(Logger.RED + "[CORROMPU]");
-                asset.download();
-            } else Logger.log(Logger.GREEN + "[OK]");
-
-            assert asset.size == asset.file.length();
-            processSize += asset.size;
-        }
-        assert processSize == totalAssetsSize;
-        Logger.log(Logger.GREEN + "Taille de l'ensemble des Assets validé !");
+    private DownloadScheduler.Priority getPriority(AssetObject asset) {
+        if (asset.name.startsWith(DEFERRABLE_ASSETS_PREFIX)) return DownloadScheduler.Priority.DEFERRABLE;
+        return DownloadScheduler.Priority.GAMEPLAY;
+    }
+
+    /**
+     * Vérifie l'intégrité de tous les assets, en parallèle.
+     * Planifie le retéléchargement de ceux qui sont manquants ou corrompus.
+     * @param batch Lot de téléchargements auquel ajouter les assets à réparer.
+     */
+    public void checkAllAssets(DownloadScheduler.Batch batch) {
+        // Plusieurs noms peuvent partager le même objet : une seule vérification par hash
+        Map<String, AssetObject> unique = new LinkedHashMap<>();
+        for (AssetObject asset : assetObjects) unique.putIfAbsent(asset.hash, asset);
+
+        ParallelVerifier.Report<AssetObject> report =
+                ParallelVerifier.verify("Assets", new ArrayList<>(unique.values()), AssetObject::check);
+        report.log(asset -> asset.name);
+
+        for (AssetObject asset : report.failed()) batch.submit(asset.name, getPriority(asset), asset::download);
     }
 
 
@@ -1,8 +1,10 @@
 package com.amynna.OriginLauncher.setup;
 
 import com.amynna.Tools.AppProperties;
+import com.amynna.Tools.DownloadScheduler;
 import com.amynna.Tools.FileManager;
 import com.amynna.Tools.Logger;
+import com.amynna.Tools.VerificationIndex;
 import org.json.JSONObject;
 
 import java.io.File;
@@ -45,14 +47,26 @@ public class ClientManager {
     }
 
     /**
-     * Télécharge le client Minecraft s'il n'est pas déjà présent.
+     * Planifie le téléchargement du client Minecraft (nécessaire au lancement) s'il n'est pas déjà présent.
+     * @param batch Lot de téléchargements auquel ajouter le client.
      */
-    protected void downloadMcClient() {
+    protected void queueMcClient(DownloadScheduler.Batch batch) {
         // Vérification légère avant le téléchargement
         if (lightCheckMcClient()) return;
 
-        // Téléchargement du client Minecraft
-        FileManager.downloadFileAndVerifySha(
+        batch.submit("Client " + AppProperties.MINECRAFT_VERSION, DownloadScheduler.Priority.CRITICAL, this::downloadMcClient);
+    }
+
+    /**
+     * Télécharge le client Minecraft s'il n'est pas déjà présent.
+     * @return Le fichier du client, ou null en cas d'échec.
+     */
+    protected File downloadMcClient() {
+        // Vérification légère avant le téléchargement
+        if (lightCheckMcClient()) return mcClient.file;
+
+        // Téléchargement du client Minecraft (segmenté si le serveur le permet)
+        return FileManager.downloadLargeFile(
                 mcClient.url,
                 mcClient.file.getPath(),
                 mcClient.sha1,
@@ -72,8 +86,7 @@ public class ClientManager {
         lightCheckMcClient();
 
         // Vérification du SHA1
-        String fileSha1 = FileManager.calculSHA(mcClient.file, FileManager.SHA1);
-        if (fileSha1 != null && fileSha1.equals(mcClient.sha1)) {
+        if (VerificationIndex.verify(mcClient.file, mcClient.sha1, FileManager.SHA1)) {
             Logger.log(Logger.GREEN + "[OK]");
             return;
         }
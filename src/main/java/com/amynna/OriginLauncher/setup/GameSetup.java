@@ -2,8 +2,12 @@ package com.amynna.OriginLauncher.setup;
 
 import com.amynna.OriginLauncher.setup.modpack.ModpackHandler;
 import com.amynna.Tools.AppProperties;
+import com.amynna.Tools.BlobStore;
+import com.amynna.Tools.DownloadScheduler;
 import com.amynna.Tools.FileManager;
 import com.amynna.Tools.Logger;
+import com.amynna.Tools.SignatureCache;
+import com.amynna.Tools.VerificationIndex;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
@@ -13,6 +17,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 /**
  * La classe {@code GameSetup} gère l'installation et la configuration du jeu.
@@ -98,30 +104,51 @@ public class GameSetup {
 
     /**
      * Effectue l'installation complète du jeu Minecraft avec Forge.
+     * Les téléchargements sont planifiés par priorité : ceux qui bloquent le lancement
+     * (bibliothèques, client, Forge) passent avant les assets et les mods, et les sons en dernier.
+     * Le client et les bibliothèques vanilla sont attendus avant l'installeur Forge, qui les utilise ;
+     * les bibliothèques ajoutées par Forge sont ensuite planifiées et attendues à leur tour.
      */
     public void setup() {
 
-        // ----[ INSTALLATION JDK ]----
-
-        Logger.log(Logger.GREEN + Logger.BOLD + "Gestion du JDK...");
-        jdkManager.jdkSetup();
+        DownloadScheduler.Batch batch = DownloadScheduler.get().batch("Installation");
 
         // ----[ INSTALLATION VANILLA ]----
 
-        // Installation des bibliothèques Minecraft
+        // Bibliothèques et client Minecraft : nécessaires au lancement
         Logger.log(Logger.GREEN + Logger.BOLD + "Gestion des bibliothèques Minecraft...");
-        libManager.downloadAllLibraries();
+        libManager.queueAllLibraries(batch);
+        Logger.log(Logger.GREEN + Logger.BOLD + "Gestion du client Minecraft...");
+        clientManager.queueMcClient(batch);
 
-        // Installation des assets Minecraft
-        Logger.log(Logger.GREEN + Logger.BOLD + "Gestion des assets Minecraft...");
-        assetManager.downloadAllAssets();
+        // ----[ INSTALLATION JDK ]----
 
-        // Installation du client Minecraft
-        Logger.log(Logger.GREEN + Logger.BOLD + "Gestion du client Minecraft...");
-        clientManager.downloadMcClient();
+        // Le JDK s'installe pendant que les téléchargements critiques avancent
+        Logger.log(Logger.GREEN + Logger.BOLD + "Gestion du JDK...");
+        FutureTask<Void> jdkTask = new FutureTask<>(jdkManager::jdkSetup, null);
+        new Thread(jdkTask, "jdk-setup").start();
+
+        // Assets Minecraft : nécessaires en jeu, sons différables
+        Logger.log(Logger.GREEN + Logger.BOLD + "Gestion des assets Minecraft...");
+        assetManager.queueAllAssets(batch);
 
         // ----[ INSTALLATION FORGE ]----
 
+        // L'installeur Forge a besoin du JDK
+        try {
+            jdkTask.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Logger.fatal("Installation du JDK interrompue.");
+        } catch (ExecutionException e) {
+            Logger.fatal("Échec de l'installation du JDK : " + e.getCause());
+        }
+
+        // L'installeur Forge lit le client et les bibliothèques vanilla : ils doivent être entièrement écrits
+        if (!batch.await(DownloadScheduler.Priority.CRITICAL).isEmpty()) {
+            Logger.fatal("Des fichiers nécessaires au lancement n'ont pas pu être téléchargés.");
+        }
+
         // Installation de Forge
         Logger.log(Logger.GREEN + Logger.BOLD + "Gestion de Forge...");
         installForge();
@@ -129,14 +156,23 @@ public class GameSetup {
 
         // Mise à jour des bibliothèques Minecraft avec celles de Forge
         Logger.log(Logger.GREEN + Logger.BOLD + "Mise à jour des bibliothèques Minecraft pour Forge...");
-        libManager.downloadAllLibraries();
+        libManager.queueAllLibraries(batch);
+        if (!batch.await(DownloadScheduler.Priority.CRITICAL).isEmpty()) {
+            Logger.fatal("Des bibliothèques Forge nécessaires au lancement n'ont pas pu être téléchargées.");
+        }
 
         Logger.log(Logger.GREEN + Logger.BOLD + "Décompression des bibliothèques natives...");
         libManager.extractNatives();
 
         // ----[ INSTALLATION MODPACK ]----
 
-        modpackHandler.setupModpack();
+        modpackHandler.setupModpack(batch);
+
+        // Fin des téléchargements restants (assets, mods, puis sons)
+        batch.await();
+        VerificationIndex.save();
+        SignatureCache.save();
+        BlobStore.prune();
 
     }
 
@@ -148,16 +184,25 @@ public class GameSetup {
         //installForge();
         forgeSetup();
 
+        // Les fichiers corrompus sont retéléchargés une fois toutes les vérifications faites
+        DownloadScheduler.Batch batch = DownloadScheduler.get().batch("Réparation");
+
         Logger.log(Logger.GREEN + Logger.BOLD + "Vérification des bibliothèques...");
-        libManager.checkAllLibraries();
+        libManager.checkAllLibraries(batch);
 
         Logger.log(Logger.GREEN + Logger.BOLD + "Vérification des assets...");
-        assetManager.checkAllAssets();
+        assetManager.checkAllAssets(batch);
 
         Logger.log(Logger.GREEN + Logger.BOLD + "Vérification du client...");
         clientManager.checkMcClient();
 
-        modpackHandler.verifModpack();
+        modpackHandler.verifModpack(batch);
+
+        batch.await();
+
+        VerificationIndex.save();
+        SignatureCache.save();
+        BlobStore.prune();
 
     }
 
@@ -191,9 +236,10 @@ public class GameSetup {
      */
     private void installVersionManifest() {
 
-        // Téléchargement du fichier manifest.json de Mojang
-        File mojangManifestFile = FileManager.downloadFile(AppProperties.MOJANG_MANIFEST_URL, AppProperties.MOJANG_MANIFEST.getPath());
-        assert mojangManifestFile != null;
+        // Téléchargement du fichier manifest.json de Mojang (seulement s'il a changé)
+        FileManager.CachedFile cachedManifest = FileManager.downloadIfModified(AppProperties.MOJANG_MANIFEST_URL, AppProperties.MOJANG_MANIFEST.getPath());
+        assert cachedManifest != null;
+        File mojangManifestFile = cachedManifest.file();
 
         // Lecture et analyse du fichier manifest.json de Mojang
         JSONObject mojangManifest = FileManager.openJsonFile(mojangManifestFile);
@@ -213,8 +259,11 @@ public class GameSetup {
         }
         assert versionUrl != null && versionSha1 != null;
 
-        // Téléchargement du fichier version.json de la version spécifique de Minecraft
-        File versionFile = FileManager.downloadFileAndVerifySha(versionUrl, AppProperties.VERSION_MANIFEST.getPath(), versionSha1, FileManager.SHA1);
+        // Téléchargement du fichier version.json de la version spécifique de Minecraft, sauf s'il est déjà à jour
+        File versionFile = AppProperties.VERSION_MANIFEST;
+        if (!versionFile.isFile() || !versionSha1.equals(FileManager.calculSHA(versionFile, FileManager.SHA1))) {
+            versionFile = FileManager.downloadFileAndVerifySha(versionUrl, AppProperties.VERSION_MANIFEST.getPath(), versionSha1, FileManager.SHA1);
+        }
         assert versionFile != null;
 
         // Lecture et analyse du fichier version.json vers JSON
@@ -227,7 +276,7 @@ public class GameSetup {
      */
     private File downloadInstaller() {
         File forgeInstallerFile = AppProperties.TEMP_DIR.toPath().resolve("forge-installer-" + AppProperties.FORGE_ID + ".jar").toFile();
-        FileManager.downloadFile(AppProperties.FORGE_INSTALLER_URL, forgeInstallerFile.getAbsolutePath());
+        FileManager.downloadLargeFile(AppProperties.FORGE_INSTALLER_URL, forgeInstallerFile.getAbsolutePath(), null, null);
         return forgeInstallerFile;
     }
 
@@ -2,18 +2,13 @@ package com.amynna.OriginLauncher.setup;
 
 import com.amynna.Tools.AppProperties;
 import com.amynna.Tools.FileManager;
+import com.amynna.Tools.HttpTransport;
 import com.amynna.Tools.Logger;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.time.Duration;
 import java.util.Objects;
 import java.util.regex.Pattern;
 
@@ -47,7 +42,8 @@ public class JdkManager {
         if (AppProperties.getOsType().equals("windows")) compressionType = "zip";
         else compressionType = "tar.gz";
 
-        jdkArchive = new File(AppProperties.TEMP_DIR, "jdk." + compressionType);
+        // Hors du répertoire temporaire : un téléchargement interrompu peut être repris au lancement suivant
+        jdkArchive = new File(AppProperties.DOWNLOADS_DIR, "jdk." + compressionType);
 
 
     }
@@ -76,8 +72,11 @@ public class JdkManager {
 
         Logger.log("Téléchargement du JDK propre...");
 
-        downloadJdk();
-        installJdk();
+        // Archive extraite au fil du téléchargement ; à défaut, téléchargement complet puis extraction
+        if (!streamJdk()) {
+            downloadJdk();
+            installJdk();
+        }
 
         Logger.log(Logger.GREEN + "JDK propre installé avec succès.");
 
@@ -158,25 +157,55 @@ public class JdkManager {
         final long fileSize = packageInfo.getLong("size");
 
         // télécharger le JDK
-        FileManager.downloadFileAndVerifySha(downloadLink, jdkArchive.getPath(), expectedChecksum, FileManager.SHA256);
+        FileManager.downloadLargeFile(downloadLink, jdkArchive.getPath(), expectedChecksum, FileManager.SHA256);
         if (!jdkArchive.exists()) Logger.fatal("Le téléchargement du JDK a échoué.");
         else if (!(jdkArchive.length() == fileSize)) Logger.fatal("Le téléchargement du JDK est invalide (taille incorrecte).");
 
     }
 
 
+    /**
+     * Télécharge l'archive TAR.GZ du JDK en l'extrayant au fil de sa réception.
+     * @return true si le JDK est installé, false s'il faut passer par le téléchargement complet
+     */
+    private boolean streamJdk() {
+        if (!compressionType.equals("tar.gz")) return false;
+
+        final JSONObject packageInfo = manifest.getJSONObject("binary").getJSONObject("package");
+        final String downloadLink = packageInfo.getString("link");
+        final String expectedChecksum = packageInfo.getString("checksum");
+
+        if (!FileManager.downloadAndUntarGz(downloadLink, jdkArchive.getPath(), AppProperties.LAUNCHER_ROOT, expectedChecksum, FileManager.SHA256)) {
+            Logger.log("Extraction à la volée du JDK impossible, téléchargement complet de l'archive...");
+            return false;
+        }
+
+        discardArchive();
+
+        // redéfinir le chemin vers le JDK
+        java = getOwnJdkPath();
+        return true;
+    }
+
     /** Installe le JDK en décompressant l'archive téléchargée. */
     private void installJdk() {
-        if (compressionType.equals("zip")) {
-            FileManager.unzip(jdkArchive, AppProperties.LAUNCHER_ROOT);
-        } else {
-            FileManager.untarGz(jdkArchive, AppProperties.LAUNCHER_ROOT);
-        }
+        // Windows : archive ZIP, décompressée en parallèle
+        boolean extracted = compressionType.equals("zip")
+                ? FileManager.unzip(jdkArchive, AppProperties.LAUNCHER_ROOT)
+                : FileManager.untarGz(jdkArchive, AppProperties.LAUNCHER_ROOT);
+        if (!extracted) Logger.fatal("L'extraction du JDK a échoué.");
+
+        discardArchive();
 
         // redéfinir le chemin vers le JDK
         java = getOwnJdkPath();
     }
 
+    /** Supprime l'archive du JDK, qui n'est plus nécessaire une fois le JDK installé. */
+    private void discardArchive() {
+        FileManager.deleteFileIfExists(jdkArchive);
+    }
+
     /** Obtient le chemin vers le JDK propre installé. */
     private String getOwnJdkPath() {
         return AppProperties.LAUNCHER_ROOT + File.separator + jdkName + File.separator + "bin" + File.separator + "java" +
@@ -231,35 +260,9 @@ public class JdkManager {
     /** Récupère le manifeste JDK depuis l'API Adoptium. */
     private JSONObject getJdkManifest(String link) {
 
-        HttpClient client = HttpClient.newBuilder().
-                version(HttpClient.Version.HTTP_1_1)
-                .connectTimeout(Duration.ofSeconds(10))
-                .build();
-
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(link))
-                .header("Accept", "application/json")
-                .GET()
-                .build();
-
-        String jsonResponse = null;
-
-        try {
-
-            HttpResponse<String> reponse = client.send(request, HttpResponse.BodyHandlers.ofString());
-
-            if (reponse.statusCode() == HttpURLConnection.HTTP_OK) {
-                jsonResponse = reponse.body();
-            } else {
-                Logger.log("Failed to fetch JDK manifest. HTTP Status: " + reponse.statusCode());
-                return null;
-            }
-
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        } catch (IOException e) {
-            Logger.fatal("La connexion a échoué lors de la récupération du manifeste JDK : " + e.getMessage());
-        }
+        // Requête via le client HTTP partagé du launcher
+        String jsonResponse = HttpTransport.getString(link, "application/json");
+        if (jsonResponse == null) Logger.fatal("La récupération du manifeste JDK a échoué : " + link);
 
         assert jsonResponse != null;
 
@@ -1,14 +1,22 @@
 package com.amynna.OriginLauncher.setup;
 
 import com.amynna.Tools.AppProperties;
+import com.amynna.Tools.DownloadScheduler;
 import com.amynna.Tools.FileManager;
 import com.amynna.Tools.Logger;
+import com.amynna.Tools.ParallelVerifier;
+import com.amynna.Tools.VerificationIndex;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -21,6 +29,8 @@ public class LibManager {
     /** Liste des bibliothèques Minecraft. */
     private final List<Library> mcLibraries;
 
+    /** Fichiers de bibliothèques déjà planifiés (une même bibliothèque peut être déclarée par Minecraft et par Forge). */
+    private final Set<File> queuedFiles = new HashSet<>();
 
     /**
      * Classe représentant une bibliothèque Minecraft.
@@ -34,8 +44,8 @@ public class LibManager {
         /**
          * Télécharge la bibliothèque et vérifie son SHA1.
          */
-        public void download() {
-            FileManager.downloadFileAndVerifySha(url, file.getPath(), sha1, FileManager.SHA1);
+        public File download() {
+            return FileManager.downloadFileAndVerifySha(url, file.getPath(), sha1, FileManager.SHA1, size);
         }
 
         /**
@@ -43,8 +53,7 @@ public class LibManager {
          */
         public boolean check() {
             if (!lightCheck()) return  false;
-            String fileSha1 = FileManager.calculSHA(file, FileManager.SHA1);
-            return fileSha1 != null && fileSha1.equals(sha1);
+            return VerificationIndex.verify(file, sha1, FileManager.SHA1);
         }
 
         /**
@@ -165,22 +174,28 @@ public class LibManager {
 
     // ----[ MÉTHODES PUBLIQUES ]----
 
-    /** Télécharge toutes les bibliothèques Minecraft. */
-    public void downloadAllLibraries() {
+    /**
+     * Planifie le téléchargement des bibliothèques Minecraft manquantes (nécessaires au lancement).
+     * @param batch Lot de téléchargements auquel ajouter les bibliothèques.
+     */
+    public void queueAllLibraries(DownloadScheduler.Batch batch) {
         for (Library lib : mcLibraries) {
-            if (!lib.lightCheck()) lib.download();
+            if (lib.lightCheck() || !queuedFiles.add(lib.file)) continue;
+            batch.submit(lib.name, DownloadScheduler.Priority.CRITICAL, lib::download);
         }
     }
 
     /** Vérifie l'intégrité de toutes les bibliothèques Minecraft. */
-    public void checkAllLibraries() {
-        for (Library lib : mcLibraries) {
-            Logger.logc("Vérification de la bibliothèque: " + lib.name + " ... ");
-            if (!lib.check()) {
-                Logger.log(Logger.RED + "[ECHEC]");
-                lib.download();
-            } else Logger.log(Logger.GREEN + "[OK]");
-        }
+    public void checkAllLibraries(DownloadScheduler.Batch batch) {
+        // Une seule vérification par fichier
+        Map<File, Library> unique = new LinkedHashMap<>();
+        for (Library lib : mcLibraries) unique.putIfAbsent(lib.file, lib);
+
+        ParallelVerifier.Report<Library> report =
+                ParallelVerifier.verify("Bibliothèques", new ArrayList<>(unique.values()), Library::check);
+        report.log(lib -> lib.name);
+
+        for (Library lib : report.failed()) batch.submit(lib.name, DownloadScheduler.Priority.CRITICAL, lib::download);
     }
 
 
@@ -214,16 +229,14 @@ public class LibManager {
         FileManager.deleteFileIfExists(AppProperties.MINECRAFT_NATIVES_DIR);
         FileManager.createDirectoriesIfNotExist(AppProperties.MINECRAFT_NATIVES_DIR.getPath());
 
-        // Parcourt toutes les bibliothèques pour extraire les natives
+        // Toutes les natives sont extraites ensemble, en parallèle
+        List<File> nativeJars = new LinkedList<>();
         for (Library lib : mcLibraries) {
-            if (lib.isNative) {
-
-                File zipFile = lib.file;
-                File outputDir = AppProperties.MINECRAFT_NATIVES_DIR;
-
-                FileManager.unzip(zipFile, outputDir);
+            if (lib.isNative) nativeJars.add(lib.file);
+        }
 
-            }
+        if (!FileManager.unzip(nativeJars, AppProperties.MINECRAFT_NATIVES_DIR)) {
+            Logger.error("Certaines natives n'ont pas pu être extraites.");
         }
 
     }
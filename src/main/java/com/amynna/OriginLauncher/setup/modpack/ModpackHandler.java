@@ -2,6 +2,7 @@ package com.amynna.OriginLauncher.setup.modpack;
 
 import com.amynna.OriginLauncher.AdminIdentificator;
 import com.amynna.Tools.AppProperties;
+import com.amynna.Tools.DownloadScheduler;
 import com.amynna.Tools.FileManager;
 import com.amynna.Tools.Logger;
 import com.amynna.Tools.SignedFile;
@@ -26,7 +27,7 @@ public class ModpackHandler {
 
         // Téléchargement et ouverture du manifeste du modpack
         String onServerUrl = "modpack/modpack_manifest.json";
-        SignedFile modpackFile = FileManager.downloadAndValidateFile(onServerUrl, AppProperties.TEMP_DIR.getPath());
+        SignedFile modpackFile = FileManager.downloadAndValidateFile(onServerUrl, AppProperties.CACHE_DIR.getPath() + File.separator + "modpack_manifest.json");
         assert modpackFile != null;
         modpackManifest = FileManager.openJsonFile(modpackFile.file());
         assert modpackManifest != null;
@@ -46,7 +47,7 @@ public class ModpackHandler {
         }
 
         String adminUrl = "modpack/modpack_admin_manifest.json";
-        SignedFile adminModpackFile = FileManager.downloadAndValidateFile(adminUrl, AppProperties.TEMP_DIR.getPath());
+        SignedFile adminModpackFile = FileManager.downloadAndValidateFile(adminUrl, AppProperties.CACHE_DIR.getPath() + File.separator + "modpack_admin_manifest.json");
         assert adminModpackFile != null;
         modpackAdminManifest = FileManager.openJsonFile(adminModpackFile.file());
         assert modpackAdminManifest != null;
@@ -59,17 +60,21 @@ public class ModpackHandler {
 
 
 
-    public void setupModpack() {
+    /**
+     * Planifie l'installation des mods du modpack.
+     * @param batch Lot de téléchargements auquel ajouter les mods.
+     */
+    public void setupModpack(DownloadScheduler.Batch batch) {
 
         Logger.log(Logger.GREEN + Logger.BOLD + "Gestion des mods...");
-        modsManager.downloadAll();
+        modsManager.queueAll(batch);
 
     }
 
-    public void verifModpack() {
+    public void verifModpack(DownloadScheduler.Batch batch) {
 
         Logger.log(Logger.GREEN + Logger.BOLD + "Vérification des mods...");
-        modsManager.checkAll();
+        modsManager.checkAll(batch);
 
     }
 
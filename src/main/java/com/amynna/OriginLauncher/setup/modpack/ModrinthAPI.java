@@ -1,14 +1,10 @@
 package com.amynna.OriginLauncher.setup.modpack;
 
-import java.net.URI;
 import java.net.URLEncoder;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 
 import com.amynna.Tools.AppProperties;
+import com.amynna.Tools.HttpTransport;
 import com.amynna.Tools.Logger;
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -55,25 +51,17 @@ public class ModrinthAPI {
         // On limite à 1 résultat pour obtenir le plus pertinent rapidement
         String searchUrl = API_BASE_URL + "/search?query=" + encodedQuery + "&limit=1";
 
-        HttpClient client = HttpClient.newHttpClient();
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(searchUrl))
-                .header("Accept", "application/json")
-                .GET()
-                .build();
+        // Envoi de la requête HTTP via le client partagé
+        String body = HttpTransport.getString(searchUrl, "application/json");
+        if (body == null) {
+            Logger.error("Erreur API lors de la recherche de " + modName);
+            return null;
+        }
 
         try {
-            // Envoi de la requête HTTP
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-
-            if (response.statusCode() != 200) {
-                Logger.error("Erreur API : Statut code " + response.statusCode() + " pour " + modName);
-                return null;
-            }
-
             // --- Parsing avec org.json ---
             // Le corps de la réponse est lu par le JSONTokener
-            JSONObject root = new JSONObject(new JSONTokener(response.body()));
+            JSONObject root = new JSONObject(new JSONTokener(body));
 
             // Le résultat de la recherche est dans le tableau "hits"
             JSONArray hits = root.getJSONArray("hits");
@@ -85,9 +73,6 @@ public class ModrinthAPI {
             } else return null;
 
 
-        } catch (IOException | InterruptedException e) {
-            Logger.error("Erreur lors de la requête : " + e.getMessage());
-            return null;
         } catch (org.json.JSONException e) {
             Logger.error("Erreur de parsing JSON : " + e.getMessage());
             return null;
@@ -124,23 +109,16 @@ public class ModrinthAPI {
                 encodedLoaders
         );
 
-        HttpClient client = HttpClient.newHttpClient();
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(versionUrl))
-                .header("Accept", "application/json")
-                .GET()
-                .build();
+        // Envoi de la requête HTTP via le client partagé
+        String body = HttpTransport.getString(versionUrl, "application/json");
+        if (body == null) {
+            Logger.error("Erreur API Modrinth lors de la recherche de versions pour " + modSlug);
+            return null;
+        }
 
         try {
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-
-            if (response.statusCode() != 200) {
-                Logger.error("Erreur API Modrinth lors de la recherche de versions pour " + modSlug + ": Statut code " + response.statusCode());
-                return null;
-            }
-
             // 3. Parsing du corps JSON (qui est un JSONArray)
-            JSONArray versionsArray = new JSONArray(new JSONTokener(response.body()));
+            JSONArray versionsArray = new JSONArray(new JSONTokener(body));
 
             // --- Début de la modification pour gérer "latest" ---
 
@@ -202,9 +180,6 @@ public class ModrinthAPI {
                 return null;
             }
 
-        } catch (IOException | InterruptedException e) {
-            Logger.error("Erreur lors de la requête HTTP : " + e.getMessage());
-            return null;
         } catch (JSONException e) {
             Logger.error("Erreur de parsing JSON : " + e.getMessage());
             return null;
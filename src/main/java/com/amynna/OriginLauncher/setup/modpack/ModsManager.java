@@ -6,8 +6,11 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 /** La classe {@code ModsManager} gère les mods du modpack dans le lanceur. */
 public class ModsManager {
@@ -43,6 +46,9 @@ public class ModsManager {
         /** Fichier signé si le mod est téléchargé depuis le serveur. */
         private SignedFile signedFile;
 
+        /** Entrée de l'index signé du paquet des mods, si le mod y figure. */
+        private PackFile.Entry packEntry;
+
         /** Constructeur privé pour initialiser un mod avec ses propriétés. */
         protected Mod(String name, boolean onServer, String path, String url, long size, String sha512) {
             // PRINCIPAUX
@@ -67,29 +73,43 @@ public class ModsManager {
             this.file = new File(pathToDownload);
         }
 
-        /** Télécharge le mod à partir de son URL. */
-        protected void download() {
+        /**
+         * Télécharge le mod à partir de son URL.
+         * @return Le fichier téléchargé, ou null en cas d'échec.
+         */
+        protected File download() {
             if (url == null || url.isEmpty()) {
                 Logger.error("Impossible de télécharger le mod " + name + " : URL invalide.");
-                return;
+                return null;
             }
 
-            if (onServer) signedFile = FileManager.downloadAndValidateFile(url, file.getPath());
-            else FileManager.downloadFileAndVerifySha(url, file.getPath(), sha512, FileManager.SHA512);
+            if (onServer) {
+                packEntry = null; // Contrôlé désormais par sa propre signature
+                signedFile = FileManager.downloadAndValidateFile(url, file.getPath(), true);
+                return signedFile == null ? null : signedFile.file();
+            }
+            return FileManager.downloadFileAndVerifySha(url, file.getPath(), sha512, FileManager.SHA512, size);
         }
 
-        /** Vérifie si le fichier existe et si sa taille correspond. */
+        /**
+         * Vérifie si le fichier est à jour : taille pour les mods externes,
+         * entrée signée (taille puis SHA-512 via l'index de vérification) pour les mods du dépôt.
+         */
         protected boolean lightCheck() {
-            if (onServer) return signedFile != null && signedFile.exists() && signedFile.valid();
+            if (onServer && packEntry != null) return ServerManifest.verify(packEntry, file);
+            if (onServer) {
+                PackFile.Entry entry = ServerManifest.get(url);
+                if (entry != null) return ServerManifest.verify(entry, file);
+                return signedFile != null && signedFile.exists() && signedFile.valid();
+            }
             return file != null && file.exists() && file.length() == size;
         }
 
         /** Vérifie l'intégrité du mod en comparant le SHA-512. */
         protected boolean check() {
-            if (onServer) return lightCheck();
+            if (onServer && packEntry == null) return lightCheck();
             if (!lightCheck()) return false;
-            String sha512 = FileManager.calculSHA(file, FileManager.SHA512);
-            return this.sha512.equals(sha512);
+            return VerificationIndex.verify(file, onServer ? packEntry.sha512() : this.sha512, FileManager.SHA512);
         }
 
     }
@@ -156,12 +176,21 @@ public class ModsManager {
         }
     }
 
+    /**
+     * Part minimale du paquet (en octets) à installer pour le télécharger en entier plutôt que fichier par fichier.
+     * En dessous, les octets inutiles du paquet coûtent plus que les requêtes individuelles.
+     */
+    private static final double PACK_MIN_MISSING_SHARE = 0.5;
+
     /** Liste des mods principaux du modpack. */
     private final List<Mod> mods;
 
     /** Liste des mods optionnels du modpack. */
     private final List<OptionalMod> optionalMods;
 
+    /** Index signé du paquet des mods, mis à jour une fois par exécution (null tant qu'il n'est pas chargé). */
+    private Map<String, PackFile.Entry> packIndex;
+
     /** Constructeur protégé pour initialiser le gestionnaire de mods. */
     protected ModsManager() {
         // Initialisation des listes de mods
@@ -185,36 +214,58 @@ public class ModsManager {
         this.optionalMods.addAll(getOptionalModsFromJson(optionalMods));
     }
 
-    protected void downloadAll() {
-        // Téléchargement des mods principaux
-        for (Mod mod : mods) {
-            if (!mod.lightCheck()) mod.download();
+    /**
+     * Planifie le téléchargement des mods manquants (nécessaires en jeu).
+     * @param batch Lot de téléchargements auquel ajouter les mods.
+     */
+    protected void queueAll(DownloadScheduler.Batch batch) {
+        // Mods à installer : principaux et optionnels activés
+        List<Mod> toInstall = new LinkedList<>(mods);
+        for (OptionalMod mod : optionalMods) if (mod.isEnabled()) toInstall.add(mod);
+
+        // Contrôle des mods du dépôt avec l'index signé du paquet publié
+        Map<String, PackFile.Entry> index = packIndex();
+        attachPackEntries(toInstall, index);
+        toInstall.removeIf(Mod::lightCheck);
+
+        // Mods du dépôt manquants : un seul téléchargement pour tout le paquet s'il en représente une part suffisante
+        Map<String, File> fromPack = new HashMap<>();
+        long missingBytes = 0;
+        for (Mod mod : toInstall) {
+            if (mod.onServer && mod.packEntry != null) {
+                fromPack.put(mod.url, mod.file);
+                missingBytes += mod.packEntry.size();
+            }
         }
-
-        // Téléchargement des mods optionnels activés
-        for (OptionalMod mod : optionalMods) {
-            if (mod.isEnabled() && !mod.lightCheck()) mod.download();
+        long packBytes = index.values().stream().mapToLong(PackFile.Entry::size).sum();
+        if (!fromPack.isEmpty() && missingBytes >= packBytes * PACK_MIN_MISSING_SHARE) {
+            Map<String, PackFile.Entry> extracted = PackFile.extract(AppProperties.MODS_PACK_ON_SERVER, fromPack);
+            if (extracted != null) {
+                attachPackEntries(toInstall, extracted);
+                toInstall.removeIf(mod -> extracted.containsKey(mod.url));
+            }
         }
+
+        // Le reste est téléchargé fichier par fichier
+        for (Mod mod : toInstall) batch.submit(mod.name, DownloadScheduler.Priority.GAMEPLAY, mod::download);
     }
 
-    protected void checkAll() {
-        // Vérification des mods principaux
-        for (Mod mod : mods) {
-            Logger.logc("Verrification du mod principal : " + mod.name + "... ");
-            if (!mod.check()) {
-                Logger.log(Logger.RED + "[ÉCHEC]");
-                mod.download();
-            } else Logger.log(Logger.GREEN + "[OK]");
-        }
+    /**
+     * Vérifie l'intégrité des mods principaux et des mods optionnels activés, en parallèle.
+     * Planifie le retéléchargement de ceux qui sont manquants ou corrompus.
+     * @param batch Lot de téléchargements auquel ajouter les mods à réparer.
+     */
+    protected void checkAll(DownloadScheduler.Batch batch) {
+        List<Mod> toCheck = new ArrayList<>(mods);
+        for (OptionalMod mod : optionalMods) if (mod.isEnabled()) toCheck.add(mod);
 
-        // Vérification des mods optionnels activés
-        for (OptionalMod mod : optionalMods) {
-            Logger.logc("Verrification du mod optionnel : " + mod.name + "... ");
-            if (mod.isEnabled() && !mod.check()) {
-                Logger.log(Logger.RED + "[ÉCHEC]");
-                mod.download();
-            } else Logger.log(Logger.GREEN + "[OK]");
-        }
+        // Contrôle des mods du dépôt avec l'index signé du paquet publié
+        attachPackEntries(toCheck, packIndex());
+
+        ParallelVerifier.Report<Mod> report = ParallelVerifier.verify("Mods", toCheck, Mod::check);
+        report.log(mod -> mod.name);
+
+        for (Mod mod : report.failed()) batch.submit(mod.name, DownloadScheduler.Priority.GAMEPLAY, mod::download);
     }
 
     protected void selectOptionnalMods() {
@@ -223,6 +274,19 @@ public class ModsManager {
 
     // ----[ MÉTHODES PRIVÉES ]----
 
+    /** Index signé du paquet des mods, revérifié auprès du serveur à la première demande de l'exécution. */
+    private Map<String, PackFile.Entry> packIndex() {
+        if (packIndex == null) packIndex = PackFile.refreshIndex(AppProperties.MODS_PACK_ON_SERVER);
+        return packIndex;
+    }
+
+    /** Associe aux mods du dépôt leur entrée dans l'index signé d'un paquet. */
+    private void attachPackEntries(List<Mod> mods, Map<String, PackFile.Entry> index) {
+        for (Mod mod : mods) {
+            if (mod.onServer && index.containsKey(mod.url)) mod.packEntry = index.get(mod.url);
+        }
+    }
+
     /** Convertit un tableau JSON de mods en une liste de mods. */
     private List<Mod> getModsFromJson(JSONArray mods) {
 
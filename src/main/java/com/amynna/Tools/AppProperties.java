@@ -27,15 +27,76 @@ public final class AppProperties {
     public static final String SIGNATURE_LOCATION_ON_SERVER = REPO_SERVER_URL + "signatures" + File.separator;
 
     public static final String MODS_DIR_ON_SERVER = "modpack/mods/";
+    /** Emplacement du côté serveur du paquet signé regroupant les mods du dépôt. */
+    public static final String MODS_PACK_ON_SERVER = "modpack/mods" + PackFile.PACK_EXTENSION;
     /** Valeur par défaut pour le mode multijoueur en jeu rapide. */
     public static final String QUICK_PLAY_MULTIPLAYER_VALUE = "...";
 
+    // TÉLÉCHARGEMENTS
+
+    /** Nombre de téléchargements simultanés du planificateur (-Doriginrp.downloadThreads). */
+    public static final int DOWNLOAD_THREADS = Math.max(1, Integer.getInteger("originrp.downloadThreads", 8));
+    /** Débit maximal de l'ensemble des téléchargements, en octets/s (-Doriginrp.maxRateKiB, 0 = illimité). */
+    public static final long MAX_DOWNLOAD_RATE = Long.getLong("originrp.maxRateKiB", 0) * 1024;
+    /** Débit maximal des téléchargements d'arrière-plan, en octets/s (-Doriginrp.backgroundRateKiB, 0 = illimité). */
+    public static final long MAX_BACKGROUND_DOWNLOAD_RATE = Long.getLong("originrp.backgroundRateKiB", 0) * 1024;
+    /** Taille à partir de laquelle un fichier est téléchargé en plusieurs segments parallèles (en octets). */
+    public static final long SEGMENTED_DOWNLOAD_THRESHOLD = 16L * 1024 * 1024;
+    /** Nombre maximal de segments parallèles pour un fichier volumineux. */
+    public static final int SEGMENT_COUNT = 4;
+    /** Nombre de tentatives pour chaque segment. */
+    public static final int SEGMENT_RETRIES = 3;
+    /** Nombre de tentatives pour chaque téléchargement (-Doriginrp.downloadRetries). */
+    public static final int DOWNLOAD_RETRIES = Math.max(1, Integer.getInteger("originrp.downloadRetries", 4));
+    /** Délai de base entre deux tentatives, doublé à chaque échec (en millisecondes). */
+    public static final long RETRY_BASE_DELAY = 500;
+    /** Délai maximal entre deux tentatives (en millisecondes). */
+    public static final long RETRY_MAX_DELAY = 8000;
+    /** Port d'écoute par défaut du proxy de cache du site. */
+    public static final int PROXY_DEFAULT_PORT = 8765;
+    /** Adresse d'écoute du proxy de cache du site (-Doriginrp.proxyBind), toutes les interfaces par défaut. */
+    public static final String PROXY_BIND_ADDRESS = System.getProperty("originrp.proxyBind", "0.0.0.0");
+    /** Taille maximale du cache du proxy, en octets (-Doriginrp.proxyCacheMiB). */
+    public static final long PROXY_CACHE_MAX_SIZE = Long.getLong("originrp.proxyCacheMiB", 20 * 1024) * 1024 * 1024;
+    /** Taille maximale des fichiers du magasin qui ne sont plus liés à aucun répertoire de jeu, en octets (-Doriginrp.blobCacheMiB). */
+    public static final long BLOB_STORE_MAX_UNSHARED_SIZE = Long.getLong("originrp.blobCacheMiB", 4 * 1024) * 1024 * 1024;
+    /** Nombre de fichiers décompressés en parallèle lors de l'extraction d'une archive ZIP (-Doriginrp.extractThreads). */
+    public static final int EXTRACT_THREADS = Math.max(1, Integer.getInteger("originrp.extractThreads", Runtime.getRuntime().availableProcessors()));
+    /** Nombre de fichiers vérifiés en parallèle (-Doriginrp.verifyThreads), 0 pour l'adapter au type de disque. */
+    public static final int VERIFY_THREADS = Math.max(0, Integer.getInteger("originrp.verifyThreads", 0));
+    /** Vérification approfondie demandée au démarrage (-Doriginrp.deepCheck) ; réglage courant : {@link VerificationIndex#isDeepCheck()}. */
+    public static final boolean DEEP_CHECK = Boolean.getBoolean("originrp.deepCheck");
+    /** Délai maximal d'établissement d'une connexion HTTP (en secondes). */
+    public static final int HTTP_CONNECT_TIMEOUT = 10;
+    /** Délai maximal d'attente d'une réponse HTTP (en secondes). */
+    public static final int HTTP_READ_TIMEOUT = 30;
+    /** Délai maximal sans recevoir d'octet pendant la lecture du corps d'une réponse HTTP (en secondes). */
+    public static final int HTTP_IDLE_TIMEOUT = 30;
+
     // RÉPERTOIRES
 
     /** Répertoire racine du lanceur. */
     public static final File LAUNCHER_ROOT = new File(System.getProperty("user.home") + File.separator + "." + APP_NAME + File.separator);
     /** Répertoire temporaire pour les fichiers téléchargés et autres opérations temporaires. */
     public static final File TEMP_DIR = new File(LAUNCHER_ROOT + File.separator + "temp" + File.separator);
+    /** Répertoire des téléchargements volumineux, conservé entre deux lancements pour permettre leur reprise. */
+    public static final File DOWNLOADS_DIR = new File(LAUNCHER_ROOT + File.separator + "downloads" + File.separator);
+    /** Cache persistant des manifestes (conservé entre deux lancements, contrairement au répertoire temporaire). */
+    public static final File CACHE_DIR = new File(LAUNCHER_ROOT + File.separator + "cache" + File.separator);
+    /** Validateurs HTTP (ETag, Last-Modified) des fichiers en cache, pour les requêtes conditionnelles. */
+    public static final File VALIDATORS_DIR = new File(CACHE_DIR + File.separator + "validators" + File.separator);
+    /** Index des fichiers déjà vérifiés (taille, date, inode, hachage), pour ne pas les rehacher à chaque vérification. */
+    public static final File VERIFICATION_INDEX_FILE = new File(CACHE_DIR + File.separator + "verification-index.json");
+    /** Cache des signatures déjà vérifiées. */
+    public static final File SIGNATURE_CACHE_FILE = new File(CACHE_DIR + File.separator + "signature-cache.json");
+    /** État de la signature en lot (hachage de chaque fichier signé), pour ne resigner que les fichiers modifiés. */
+    public static final File SIGN_STATE_FILE = new File(CACHE_DIR + File.separator + "sign-state.json");
+    /** Magasin des fichiers vérifiés, adressé par leur hachage et partagé par tous les répertoires de jeu. */
+    public static final File BLOBS_DIR = new File(LAUNCHER_ROOT + File.separator + "blobs" + File.separator);
+    /** Cache disque du proxy de cache du site. */
+    public static final File PROXY_CACHE_DIR = new File(LAUNCHER_ROOT + File.separator + "proxy-cache" + File.separator);
+    /** Fichier optionnel des miroirs de téléchargement (préfixe d'origine ➔ liste de miroirs). */
+    public static final File MIRRORS_FILE = new File(LAUNCHER_ROOT + File.separator + "mirrors.json");
     /** Répertoire pour stocker les signatures des fichiers. */
     public static final File SIGNATURE_DIR = new File(LAUNCHER_ROOT + File.separator + "signatures" + File.separator);
 
@@ -90,7 +151,7 @@ public final class AppProperties {
     /** URL du manifeste des versions de Minecraft. */
     public static final String MOJANG_MANIFEST_URL = "https://piston-meta.mojang.com/mc/game/version_manifest_v2.json";
     /** Emplacement local du manifeste des versions de Minecraft. */
-    public static final File MOJANG_MANIFEST = new File(TEMP_DIR + File.separator + "mojang_manifest.json");
+    public static final File MOJANG_MANIFEST = new File(CACHE_DIR + File.separator + "mojang_manifest.json");
     /** Emplacement local du manifeste de la version actuellement installée. */
     public static final File VERSION_MANIFEST = new File(MINECRAFT_VERSION_DIR + File.separator + "version.json");
 
@@ -0,0 +1,166 @@
+package com.amynna.Tools;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.function.Supplier;
+
+/**
+ * Limiteur de bande passante global, partagé par tous les téléchargements du launcher.
+ * Deux seaux à jetons (token bucket) sont utilisés : un seau global appliqué à tous les
+ * téléchargements, et un seau supplémentaire pour les téléchargements d'arrière-plan.
+ * Quelle que soit la concurrence, le débit total reste sous le budget configuré.
+ */
+public final class BandwidthLimiter {
+
+    // ---- [ ATTRIBUTS ] ----
+
+    /** Seau global, appliqué à tous les téléchargements. */
+    private static final TokenBucket GLOBAL = new TokenBucket(AppProperties.MAX_DOWNLOAD_RATE);
+    /** Seau d'arrière-plan, appliqué en plus du seau global. */
+    private static final TokenBucket BACKGROUND = new TokenBucket(AppProperties.MAX_BACKGROUND_DOWNLOAD_RATE);
+
+    /** Indique si le thread courant télécharge en arrière-plan. */
+    private static final ThreadLocal<Boolean> IN_BACKGROUND = ThreadLocal.withInitial(() -> false);
+
+    /**
+     * Seau à jetons : les jetons (octets) se remplissent au débit configuré,
+     * jusqu'à une capacité d'une seconde de débit.
+     */
+    private static final class TokenBucket {
+
+        /** Débit en octets par seconde (0 = illimité). */
+        private volatile long rate;
+        /** Jetons disponibles (négatif si des octets ont été réservés à l'avance). */
+        private double tokens;
+        /** Dernier instant de remplissage (en nanosecondes). */
+        private long lastRefill = System.nanoTime();
+
+        private TokenBucket(long rate) {
+            this.rate = Math.max(0, rate);
+            this.tokens = this.rate;
+        }
+
+        /**
+         * Réserve des octets et attend le temps nécessaire pour respecter le débit.
+         * L'attente a lieu hors du verrou, pour ne pas bloquer les autres threads.
+         */
+        private void acquire(int bytes) throws InterruptedException {
+            long waitNanos;
+            synchronized (this) {
+                long currentRate = rate;
+                if (currentRate <= 0) return;
+
+                long now = System.nanoTime();
+                tokens = Math.min(currentRate, tokens + (now - lastRefill) * currentRate / 1e9);
+                lastRefill = now;
+
+                tokens -= bytes;
+                waitNanos = tokens >= 0 ? 0 : (long) (-tokens * 1e9 / currentRate);
+            }
+            if (waitNanos > 0) Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+        }
+
+        private synchronized void setRate(long rate) {
+            this.rate = Math.max(0, rate);
+            this.tokens = Math.min(tokens, this.rate);
+            this.lastRefill = System.nanoTime();
+        }
+    }
+
+    private BandwidthLimiter() {
+        // Constructeur privé pour empêcher l'instanciation
+        Logger.fatal("BandwidthLimiter ne peut pas être instancié.");
+    }
+
+    // ---- [ MÉTHODES PUBLIQUES ] ----
+
+    /**
+     * Consomme des octets sur le budget de bande passante, en attendant si nécessaire.
+     * À appeler après chaque lecture réseau.
+     * @param bytes Nombre d'octets reçus
+     * @throws InterruptedException Si le thread est interrompu pendant l'attente
+     */
+    public static void acquire(int bytes) throws InterruptedException {
+        if (bytes <= 0) return;
+        if (IN_BACKGROUND.get()) BACKGROUND.acquire(bytes);
+        GLOBAL.acquire(bytes);
+    }
+
+    /**
+     * Soumet un flux réseau lu par un tiers (décompresseur, extracteur) à la limite de débit.
+     * @param in Le flux réseau
+     * @return Le flux limité
+     */
+    public static InputStream limit(InputStream in) {
+        return new RateLimitedInputStream(in);
+    }
+
+    /**
+     * Exécute une tâche dont les téléchargements sont soumis à la limite d'arrière-plan.
+     * @param task La tâche à exécuter
+     * @return Le résultat de la tâche
+     */
+    public static <T> T runInBackground(Supplier<T> task) {
+        boolean previous = IN_BACKGROUND.get();
+        IN_BACKGROUND.set(true);
+        try {
+            return task.get();
+        } finally {
+            IN_BACKGROUND.set(previous);
+        }
+    }
+
+    /**
+     * Modifie le débit global maximal.
+     * @param bytesPerSecond Débit en octets par seconde (0 = illimité)
+     */
+    public static void setGlobalRate(long bytesPerSecond) {
+        GLOBAL.setRate(bytesPerSecond);
+    }
+
+    /**
+     * Modifie le débit maximal des téléchargements d'arrière-plan.
+     * @param bytesPerSecond Débit en octets par seconde (0 = illimité)
+     */
+    public static void setBackgroundRate(long bytesPerSecond) {
+        BACKGROUND.setRate(bytesPerSecond);
+    }
+
+    // ---- [ CLASSES INTERNES ] ----
+
+    /**
+     * Flux soumis à la limite de débit : chaque lecture consomme des jetons.
+     */
+    private static final class RateLimitedInputStream extends FilterInputStream {
+
+        private RateLimitedInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) consume(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int bytesRead = super.read(buffer, offset, length);
+            consume(bytesRead);
+            return bytesRead;
+        }
+
+        private static void consume(int bytes) throws InterruptedIOException {
+            try {
+                acquire(bytes);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Téléchargement interrompu");
+            }
+        }
+    }
+
+}
@@ -0,0 +1,172 @@
+package com.amynna.Tools;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.PrivateKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Signature en lot d'une arborescence (commande d'administration).
+ * Chaque fichier reçoit sa signature dans un répertoire de signatures qui reproduit l'arborescence
+ * (disposition du serveur : {@code v1/modpack/mods/x.jar} ➔ {@code v1/signatures/modpack/mods/x.jar.sig}).
+ * Les fichiers sont signés en parallèle ; ceux dont le contenu n'a pas changé depuis la dernière signature
+ * avec la même clé, et dont le fichier {@code .sig} est toujours celui produit alors, sont ignorés.
+ */
+public final class BatchSigner {
+
+    // ---- [ ATTRIBUTS ] ----
+
+    /**
+     * Signature déjà produite.
+     * @param hash SHA-512 du fichier au moment de la signature
+     * @param keyId Empreinte de la clé utilisée
+     * @param signatureHash SHA-512 du fichier {@code .sig} produit
+     */
+    private record Signed(String hash, String keyId, String signatureHash) {}
+
+    private BatchSigner() {
+        // Constructeur privé pour empêcher l'instanciation
+        Logger.fatal("BatchSigner ne peut pas être instancié.");
+    }
+
+    // ---- [ MÉTHODES PUBLIQUES ] ----
+
+    /**
+     * Signe tous les fichiers d'une arborescence.
+     * @param rootDir Racine de l'arborescence à signer
+     * @param signaturesDir Répertoire des signatures (ignoré s'il se trouve dans l'arborescence)
+     * @param privateKey Clé privée
+     * @return true si tous les fichiers sont signés (ou déjà à jour)
+     */
+    public static boolean signAll(File rootDir, File signaturesDir, PrivateKey privateKey) {
+        if (!rootDir.isDirectory()) {
+            Logger.error("Le répertoire à signer est introuvable : " + rootDir);
+            return false;
+        }
+        Path root = rootDir.toPath().toAbsolutePath().normalize();
+        Path signatures = signaturesDir.toPath().toAbsolutePath().normalize();
+
+        String keyId;
+        List<Path> files = new ArrayList<>();
+        try {
+            keyId = KeyUtil.getKeyFingerprint(privateKey);
+            try (Stream<Path> stream = Files.walk(root)) {
+                stream.filter(Files::isRegularFile)
+                        .filter(file -> !file.startsWith(signatures))
+                        .filter(file -> !file.toString().endsWith(AppProperties.SIGNATURE_FILE_EXTENSION))
+                        .filter(file -> !file.toString().endsWith(DeltaSync.BLOCK_MAP_EXTENSION))
+                        .sorted()
+                        .forEach(files::add);
+            }
+        } catch (IOException e) {
+            Logger.error("Erreur lors du parcours de " + rootDir + " : " + e.getMessage());
+            return false;
+        }
+
+        Map<String, Signed> state = loadState();
+        AtomicInteger signedCount = new AtomicInteger();
+        AtomicInteger skippedCount = new AtomicInteger();
+
+        ParallelVerifier.Report<Path> report = ParallelVerifier.verify("Signature", files, file -> {
+            Path relative = root.relativize(file);
+            Path signDir = relative.getParent() == null ? signatures : signatures.resolve(relative.getParent());
+            Path signFile = signDir.resolve(file.getFileName() + AppProperties.SIGNATURE_FILE_EXTENSION);
+
+            // Contenu inchangé depuis la dernière signature avec la même clé, .sig intact : rien à refaire
+            String hash = VerificationIndex.hash(file.toFile(), FileManager.SHA512);
+            if (hash == null) return false;
+            Signed previous = state.get(signFile.toString());
+            if (previous != null && previous.hash().equals(hash) && previous.keyId().equals(keyId)
+                    && previous.signatureHash() != null && previous.signatureHash().equals(signatureHash(signFile))) {
+                skippedCount.incrementAndGet();
+                return true;
+            }
+
+            try {
+                Files.createDirectories(signDir);
+            } catch (IOException e) {
+                Logger.error("Impossible de créer " + signDir + " : " + e.getMessage());
+                return false;
+            }
+            if (KeyUtil.sign(file.toFile(), signDir.toString(), privateKey) == null) return false;
+            String signatureHash = signatureHash(signFile);
+            if (signatureHash == null) return false;
+            state.put(signFile.toString(), new Signed(hash, keyId, signatureHash));
+            signedCount.incrementAndGet();
+            return true;
+        });
+
+        saveState(state);
+        VerificationIndex.save();
+
+        String summary = "Signature de " + rootDir + " : " + signedCount.get() + " fichier(s) signé(s), "
+                + skippedCount.get() + " inchangé(s) en " + report.elapsedMillis() + " ms";
+        if (report.isClean()) {
+            Logger.log(Logger.GREEN + summary + ".");
+            return true;
+        }
+        Logger.error(summary + ", " + report.failed().size() + " échec(s) :");
+        for (Path file : report.failed()) Logger.error("   - " + root.relativize(file));
+        return false;
+    }
+
+    // ---- [ MÉTHODES PRIVÉES ] ----
+
+    /**
+     * Hachage d'un fichier de signature, pour détecter une signature modifiée ou remplacée depuis son écriture.
+     * @return Le SHA-512 du fichier, ou null s'il est absent ou illisible
+     */
+    private static String signatureHash(Path signFile) {
+        if (!Files.isRegularFile(signFile)) return null;
+        try {
+            return Hasher.hash(signFile, FileManager.SHA512);
+        } catch (IOException e) {
+            Logger.error("Impossible de lire " + signFile + " : " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static Map<String, Signed> loadState() {
+        Map<String, Signed> state = new ConcurrentHashMap<>();
+        if (!AppProperties.SIGN_STATE_FILE.isFile()) return state;
+
+        JSONObject json = FileManager.openJsonFile(AppProperties.SIGN_STATE_FILE);
+        if (json == null) return state;
+        for (String signFile : json.keySet()) {
+            JSONObject item = json.getJSONObject(signFile);
+            state.put(signFile, new Signed(item.getString("hash"), item.getString("kid"), item.optString("sig", null)));
+        }
+        return state;
+    }
+
+    private static void saveState(Map<String, Signed> state) {
+        JSONObject json = new JSONObject();
+        for (Map.Entry<String, Signed> entry : state.entrySet()) {
+            json.put(entry.getKey(), new JSONObject()
+                    .put("hash", entry.getValue().hash())
+                    .put("kid", entry.getValue().keyId())
+                    .put("sig", entry.getValue().signatureHash()));
+        }
+
+        Path temp = AppProperties.SIGN_STATE_FILE.toPath().resolveSibling(AppProperties.SIGN_STATE_FILE.getName() + ".tmp");
+        try {
+            Files.createDirectories(temp.getParent());
+            Files.writeString(temp, json.toString(), StandardCharsets.UTF_8);
+            Files.move(temp, AppProperties.SIGN_STATE_FILE.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Logger.error("Impossible d'enregistrer l'état des signatures : " + e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,187 @@
+package com.amynna.Tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Magasin de fichiers adressé par contenu, partagé par tous les répertoires de jeu.
+ * Chaque fichier vérifié est rangé une seule fois sous {@code blobs/<algorithme>/<xx>/<hachage>},
+ * puis matérialisé à son emplacement par un lien physique (ou une copie si le lien est impossible).
+ * Une réinstallation ou une réparation ne coûte alors ni réseau ni espace disque supplémentaire.
+ * Les blobs qui ne sont plus liés à aucun fichier du jeu occupent réellement de la place : ils sont supprimés,
+ * les plus anciens d'abord, au-delà de {@link AppProperties#BLOB_STORE_MAX_UNSHARED_SIZE} ({@link #prune()}).
+ */
+public final class BlobStore {
+
+    // ---- [ ATTRIBUTS ] ----
+
+    /** Extension des fichiers temporaires du magasin. */
+    private static final String TEMP_EXTENSION = ".tmp";
+
+    /**
+     * Blob candidat à la suppression.
+     * @param path Chemin du blob
+     * @param size Taille du blob
+     * @param lastModified Date de modification (rangement dans le magasin)
+     */
+    private record Unshared(Path path, long size, long lastModified) {}
+
+    private BlobStore() {
+        // Constructeur privé pour empêcher l'instanciation
+        Logger.fatal("BlobStore ne peut pas être instancié.");
+    }
+
+    // ---- [ MÉTHODES PUBLIQUES ] ----
+
+    /**
+     * Matérialise un fichier depuis le magasin, s'il y est présent.
+     * Le contenu du magasin est revérifié avant d'être utilisé : une copie altérée est écartée.
+     * @param hash Hachage attendu du fichier
+     * @param shaType Algorithme de hachage (SHA-1, SHA-256, SHA-512)
+     * @param destination Emplacement du fichier dans le répertoire de jeu
+     * @return Le fichier matérialisé, ou null s'il n'est pas dans le magasin
+     */
+    public static File materialize(String hash, String shaType, Path destination) {
+        Path blob = getBlobPath(hash, shaType);
+        if (!Files.isRegularFile(blob)) return null;
+
+        if (!hash.equalsIgnoreCase(FileManager.calculSHA(blob.toFile(), shaType))) {
+            Logger.error("Fichier altéré dans le magasin, suppression : " + blob);
+            FileManager.deleteFileIfExists(blob.toFile());
+            return null;
+        }
+
+        try {
+            Files.createDirectories(destination.getParent());
+            Files.deleteIfExists(destination);
+            linkOrCopy(blob, destination);
+            return destination.toFile();
+        } catch (IOException e) {
+            Logger.error("Impossible de matérialiser " + destination + " depuis le magasin : " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Range un fichier vérifié dans le magasin, en le liant à son emplacement actuel.
+     * Sans effet si le fichier y est déjà.
+     * @param file Fichier dont le hachage a été vérifié
+     * @param hash Hachage du fichier
+     * @param shaType Algorithme de hachage
+     */
+    public static void store(Path file, String hash, String shaType) {
+        Path blob = getBlobPath(hash, shaType);
+        if (Files.isRegularFile(blob)) return;
+
+        // Passage par un fichier temporaire : un blob visible est toujours complet
+        Path temp = blob.resolveSibling(blob.getFileName() + "." + Thread.currentThread().getId() + TEMP_EXTENSION);
+        try {
+            Files.createDirectories(blob.getParent());
+            Files.deleteIfExists(temp);
+            linkOrCopy(file, temp);
+            try {
+                Files.move(temp, blob, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                Files.deleteIfExists(temp); // Rangé entre-temps par un autre téléchargement
+            }
+        } catch (IOException e) {
+            Logger.error("Impossible de ranger " + file + " dans le magasin : " + e.getMessage());
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Fichier temporaire laissé en place, écrasé à la prochaine tentative
+            }
+        }
+    }
+
+    /**
+     * Supprime les blobs qui ne sont plus liés à aucun fichier du jeu, les plus anciens d'abord,
+     * tant que leur taille totale dépasse {@link AppProperties#BLOB_STORE_MAX_UNSHARED_SIZE}.
+     * Un blob encore lié ne coûte pas d'espace et n'est pas supprimé. Si le système de fichiers
+     * ne donne pas le nombre de liens, chaque blob est compté : supprimer un blob ne touche jamais
+     * au fichier du jeu, qui garde son propre lien (ou sa copie).
+     */
+    public static void prune() {
+        Path root = AppProperties.BLOBS_DIR.toPath();
+        if (!Files.isDirectory(root)) return;
+
+        List<Unshared> unshared = new ArrayList<>();
+        long unsharedSize = 0;
+        try (Stream<Path> stream = Files.walk(root)) {
+            for (Path blob : (Iterable<Path>) stream::iterator) {
+                BasicFileAttributes attributes = Files.readAttributes(blob, BasicFileAttributes.class);
+                if (!attributes.isRegularFile() || blob.getFileName().toString().endsWith(TEMP_EXTENSION)) continue;
+                if (linkCount(blob) > 1) continue;
+                unshared.add(new Unshared(blob, attributes.size(), attributes.lastModifiedTime().toMillis()));
+                unsharedSize += attributes.size();
+            }
+        } catch (IOException e) {
+            Logger.error("Impossible de parcourir le magasin : " + e.getMessage());
+            return;
+        }
+
+        unshared.sort(Comparator.comparingLong(Unshared::lastModified));
+        int removed = 0;
+        for (Unshared blob : unshared) {
+            if (unsharedSize <= AppProperties.BLOB_STORE_MAX_UNSHARED_SIZE) break;
+            try {
+                Files.deleteIfExists(blob.path());
+                unsharedSize -= blob.size();
+                removed++;
+            } catch (IOException e) {
+                Logger.error("Impossible de supprimer " + blob.path() + " du magasin : " + e.getMessage());
+            }
+        }
+        if (removed > 0) Logger.log("Magasin : " + removed + " fichier(s) inutilisé(s) supprimé(s).");
+    }
+
+    /**
+     * Emplacement d'un fichier dans le magasin.
+     * @param hash Hachage du fichier
+     * @param shaType Algorithme de hachage
+     * @return Le chemin du blob
+     */
+    public static Path getBlobPath(String hash, String shaType) {
+        String normalized = hash.toLowerCase(Locale.ROOT);
+        String algorithm = shaType.replace("-", "").toLowerCase(Locale.ROOT);
+        return AppProperties.BLOBS_DIR.toPath()
+                .resolve(algorithm)
+                .resolve(normalized.substring(0, 2))
+                .resolve(normalized);
+    }
+
+    // ---- [ MÉTHODES PRIVÉES ] ----
+
+    /**
+     * Nombre de liens physiques d'un fichier, ou 1 si le système de fichiers ne le fournit pas.
+     */
+    private static int linkCount(Path file) {
+        try {
+            return (Integer) Files.getAttribute(file, "unix:nlink");
+        } catch (UnsupportedOperationException | IllegalArgumentException | IOException e) {
+            return 1;
+        }
+    }
+
+    /**
+     * Crée un lien physique vers la source, ou une copie si le système de fichiers ne le permet pas
+     * (volumes différents, système de fichiers sans liens physiques).
+     * Java ne donne pas accès aux copies légères (reflink) : la copie complète est le dernier recours.
+     */
+    private static void linkOrCopy(Path source, Path target) throws IOException {
+        try {
+            Files.createLink(target, source);
+        } catch (UnsupportedOperationException | IOException e) {
+            if (e instanceof FileAlreadyExistsException) throw (FileAlreadyExistsException) e;
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+}
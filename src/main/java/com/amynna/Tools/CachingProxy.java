@@ -0,0 +1,449 @@
+package com.amynna.Tools;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLDecoder;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Proxy HTTP de cache pour les sites où plusieurs machines utilisent le launcher.
+ * Une machine lance le proxy ({@code proxy [port]}), les autres lui demandent les fichiers
+ * via {@code /cache?url=<url d'origine>} (voir {@link HttpTransport#proxied(String)}).
+ * Chaque réponse est téléchargée une seule fois depuis l'origine, puis conservée dans un cache disque
+ * adressé par le SHA-256 de son URL, avec éviction des fichiers les moins récemment utilisés (LRU).
+ * Seuls les téléchargements vérifiés par hachage passent par le proxy : leur contenu ne change jamais.
+ * Le proxy ne relaie que les origines connues du launcher ({@link #ALLOWED_ORIGINS}) : toute autre URL
+ * est refusée (403), pour qu'il ne serve pas de relais ouvert sur le réseau local.
+ */
+public final class CachingProxy {
+
+    // ---- [ ATTRIBUTS ] ----
+
+    /** Chemin du point d'accès du proxy. */
+    public static final String CACHE_ENDPOINT = "/cache";
+
+    /** Origines relayées par défaut : fichiers Mojang, Forge, Modrinth, JDK Adoptium et serveur du launcher. */
+    public static final List<String> ALLOWED_ORIGINS = List.of(
+            "https://resources.download.minecraft.net/",
+            "https://libraries.minecraft.net/",
+            "https://piston-data.mojang.com/",
+            "https://maven.minecraftforge.net/",
+            "https://cdn.modrinth.com/",
+            "https://github.com/adoptium/",
+            AppProperties.REPO_SERVER_URL
+    );
+
+    /** Code HTTP 416 : plage demandée non satisfaisable. */
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+    /** Extension des fichiers en cours de téléchargement depuis l'origine. */
+    private static final String TEMP_EXTENSION = ".tmp";
+
+    /** Serveur HTTP du proxy. */
+    private final HttpServer server;
+    /** Workers du serveur. */
+    private final ExecutorService workers;
+    /** Répertoire du cache. */
+    private final Path cacheDir;
+    /** Taille maximale du cache (en octets). */
+    private final long maxSize;
+    /** Préfixes des URL que le proxy accepte de relayer. */
+    private final List<String> allowedOrigins;
+
+    /** Entrées du cache (clé ➔ taille), de la moins récemment utilisée à la plus récente. */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    /** Taille totale des entrées du cache. */
+    private long totalSize = 0;
+
+    /**
+     * Téléchargements en cours depuis l'origine (clé ➔ code HTTP obtenu) : une URL absente du cache
+     * n'est téléchargée qu'une fois, les requêtes parallèles attendent le même résultat.
+     */
+    private final Map<String, CompletableFuture<Integer>> fetches = new ConcurrentHashMap<>();
+
+    /** Nombre de réponses servies depuis le cache. */
+    private final AtomicLong hits = new AtomicLong();
+    /** Nombre de réponses téléchargées depuis l'origine. */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Crée le proxy (sans le démarrer), sur l'adresse {@link AppProperties#PROXY_BIND_ADDRESS},
+     * pour les origines {@link #ALLOWED_ORIGINS}.
+     * @param port Port d'écoute (0 pour un port libre quelconque)
+     * @param cacheDir Répertoire du cache
+     * @param maxSize Taille maximale du cache (en octets)
+     * @throws IOException Si le port ne peut pas être ouvert
+     */
+    public CachingProxy(int port, Path cacheDir, long maxSize) throws IOException {
+        this(new InetSocketAddress(AppProperties.PROXY_BIND_ADDRESS, port), cacheDir, maxSize, ALLOWED_ORIGINS);
+    }
+
+    /**
+     * Crée le proxy (sans le démarrer).
+     * @param address Adresse et port d'écoute (port 0 pour un port libre quelconque)
+     * @param cacheDir Répertoire du cache
+     * @param maxSize Taille maximale du cache (en octets)
+     * @param allowedOrigins Préfixes des URL que le proxy accepte de relayer
+     * @throws IOException Si le port ne peut pas être ouvert
+     */
+    public CachingProxy(InetSocketAddress address, Path cacheDir, long maxSize, List<String> allowedOrigins) throws IOException {
+        this.cacheDir = cacheDir;
+        this.maxSize = maxSize;
+        this.allowedOrigins = List.copyOf(allowedOrigins);
+        this.server = HttpServer.create(address, 0);
+        this.workers = Executors.newFixedThreadPool(AppProperties.DOWNLOAD_THREADS * 2, runnable -> {
+            Thread thread = new Thread(runnable, "proxy-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(workers);
+        server.createContext(CACHE_ENDPOINT, this::handle);
+        loadEntries();
+    }
+
+    // ---- [ MÉTHODES PUBLIQUES ] ----
+
+    /** Démarre le proxy. */
+    public void start() {
+        server.start();
+        Logger.log(Logger.GREEN + "Proxy de cache démarré sur " + server.getAddress().getHostString() + ":" + getPort() +
+                " (cache : " + cacheDir + ", " + totalSize / (1024 * 1024) + " / " + maxSize / (1024 * 1024) + " Mio)");
+    }
+
+    /** Arrête le proxy. */
+    public void stop() {
+        server.stop(0);
+        workers.shutdownNow();
+        Logger.log("Proxy de cache arrêté (" + hits.get() + " réponse(s) depuis le cache, " + misses.get() + " depuis l'origine).");
+    }
+
+    /** Port d'écoute effectif du proxy. */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /** Nombre de réponses servies depuis le cache. */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /** Nombre de réponses téléchargées depuis l'origine. */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    // ---- [ MÉTHODES PRIVÉES ] ----
+
+    /**
+     * Traite une requête {@code /cache?url=...} : sert le fichier depuis le cache,
+     * en le téléchargeant d'abord depuis l'origine s'il est absent.
+     */
+    private void handle(HttpExchange exchange) {
+        try {
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                exchange.sendResponseHeaders(HttpURLConnection.HTTP_BAD_METHOD, -1);
+                return;
+            }
+
+            String url = getTargetUrl(exchange.getRequestURI().getRawQuery());
+            if (url == null || !(url.startsWith("http://") || url.startsWith("https://"))) {
+                exchange.sendResponseHeaders(HttpURLConnection.HTTP_BAD_REQUEST, -1);
+                return;
+            }
+            if (!isAllowed(url)) {
+                Logger.error("Proxy : origine refusée : " + url);
+                exchange.sendResponseHeaders(HttpURLConnection.HTTP_FORBIDDEN, -1);
+                return;
+            }
+
+            String key = key(url);
+            Path cached = cacheDir.resolve(key.substring(0, 2)).resolve(key);
+            int originStatus = ensureCached(url, key, cached);
+            if (originStatus != HttpURLConnection.HTTP_OK) {
+                exchange.sendResponseHeaders(originStatus, -1);
+                return;
+            }
+
+            serve(exchange, cached, url, method.equals("HEAD"));
+        } catch (IOException e) {
+            Logger.error("Proxy : erreur lors du traitement de " + exchange.getRequestURI() + " : " + e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * S'assure qu'une URL est dans le cache, en la téléchargeant depuis l'origine si besoin.
+     * @return 200 si le fichier est en cache, sinon le code renvoyé par l'origine (502 si injoignable)
+     */
+    private int ensureCached(String url, String key, Path cached) {
+        if (touch(key, cached)) {
+            hits.incrementAndGet();
+            return HttpURLConnection.HTTP_OK;
+        }
+
+        // Un seul téléchargement par clé : les autres requêtes attendent son résultat
+        CompletableFuture<Integer> mine = new CompletableFuture<>();
+        CompletableFuture<Integer> running = fetches.putIfAbsent(key, mine);
+        if (running != null) {
+            int status = running.join();
+            return status == HttpURLConnection.HTTP_OK ? ensureCached(url, key, cached) : status;
+        }
+
+        int status = HttpURLConnection.HTTP_BAD_GATEWAY;
+        try {
+            // Téléchargé entre-temps par une autre requête
+            if (touch(key, cached)) {
+                hits.incrementAndGet();
+                status = HttpURLConnection.HTTP_OK;
+            } else {
+                misses.incrementAndGet();
+                status = fetch(url, key, cached);
+            }
+            return status;
+        } finally {
+            // Retiré avant d'être complété : une requête suivante trouve le fichier en cache ou lance son propre téléchargement
+            fetches.remove(key, mine);
+            mine.complete(status);
+        }
+    }
+
+    /**
+     * Indique si une URL appartient à une origine que le proxy accepte de relayer.
+     */
+    private boolean isAllowed(String url) {
+        URI uri;
+        try {
+            uri = new URI(url).normalize();
+        } catch (URISyntaxException e) {
+            return false;
+        }
+        if (uri.getHost() == null || uri.getRawUserInfo() != null) return false;
+
+        String target = uri.toString();
+        for (String origin : allowedOrigins) {
+            if (target.startsWith(origin)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Télécharge une URL depuis l'origine vers le cache.
+     * @return Le code HTTP de l'origine, ou 502 en cas d'erreur réseau
+     */
+    private int fetch(String url, String key, Path cached) {
+        Path temp = cached.resolveSibling(key + TEMP_EXTENSION);
+        try {
+            HttpResponse<InputStream> response = HttpTransport.openStream(HttpTransport.request(url).GET().build());
+            if (response.statusCode() != HttpURLConnection.HTTP_OK) {
+                response.body().close();
+                return response.statusCode();
+            }
+
+            Files.createDirectories(cached.getParent());
+            try (InputStream in = response.body()) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.move(temp, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            synchronized (entries) {
+                Long previous = entries.put(key, Files.size(cached));
+                totalSize += Files.size(cached) - (previous == null ? 0 : previous);
+                evict(key);
+            }
+            Logger.log(Logger.BLUE + "Proxy : " + url + " mis en cache");
+            return HttpURLConnection.HTTP_OK;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return HttpURLConnection.HTTP_UNAVAILABLE;
+        } catch (IOException e) {
+            Logger.error("Proxy : échec du téléchargement de " + url + " : " + e.getMessage());
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Fichier temporaire écrasé à la prochaine tentative
+            }
+            return HttpURLConnection.HTTP_BAD_GATEWAY;
+        }
+    }
+
+    /**
+     * Envoie un fichier du cache, en entier ou la plage demandée (en-tête Range à une seule plage).
+     */
+    private void serve(HttpExchange exchange, Path cached, String url, boolean headOnly) throws IOException {
+        long size = Files.size(cached);
+        long start = 0;
+        long end = size - 1;
+        int status = HttpURLConnection.HTTP_OK;
+
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        if (range != null && range.startsWith("bytes=") && !range.contains(",")) {
+            String[] bounds = range.substring("bytes=".length()).split("-", 2);
+            try {
+                if (bounds[0].isEmpty()) {
+                    start = Math.max(0, size - Long.parseLong(bounds[1])); // Suffixe : « bytes=-n »
+                } else {
+                    start = Long.parseLong(bounds[0]);
+                    if (bounds.length > 1 && !bounds[1].isEmpty()) end = Math.min(end, Long.parseLong(bounds[1]));
+                }
+            } catch (NumberFormatException e) {
+                start = size; // Plage illisible : traitée comme non satisfaisable
+            }
+            if (start >= size || start > end) {
+                exchange.getResponseHeaders().set("Content-Range", "bytes */" + size);
+                exchange.sendResponseHeaders(HTTP_RANGE_NOT_SATISFIABLE, -1);
+                return;
+            }
+            status = HttpURLConnection.HTTP_PARTIAL;
+            exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + end + "/" + size);
+        }
+
+        long length = end - start + 1;
+        exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+        exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+        // Nom du fichier d'origine, l'URL du proxy ne le contient pas
+        String fileName = url.split("[?#]", 2)[0];
+        fileName = fileName.substring(fileName.lastIndexOf('/') + 1);
+        if (!fileName.isEmpty()) exchange.getResponseHeaders().set("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
+        if (headOnly) {
+            exchange.getResponseHeaders().set("Content-Length", String.valueOf(length));
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+
+        exchange.sendResponseHeaders(status, length);
+        try (RandomAccessFile file = new RandomAccessFile(cached.toFile(), "r");
+             OutputStream out = exchange.getResponseBody()) {
+            file.seek(start);
+            byte[] buffer = new byte[64 * 1024];
+            long remaining = length;
+            int bytesRead;
+            while (remaining > 0 && (bytesRead = file.read(buffer, 0, (int) Math.min(buffer.length, remaining))) != -1) {
+                out.write(buffer, 0, bytesRead);
+                remaining -= bytesRead;
+            }
+        }
+    }
+
+    /**
+     * Marque une entrée comme récemment utilisée, si elle est dans le cache.
+     * La date de modification du fichier conserve l'ordre LRU entre deux exécutions du proxy.
+     * @return true si l'entrée est dans le cache
+     */
+    private boolean touch(String key, Path cached) {
+        synchronized (entries) {
+            if (entries.get(key) == null) return false;
+        }
+        try {
+            Files.setLastModifiedTime(cached, FileTime.fromMillis(System.currentTimeMillis()));
+            return true;
+        } catch (IOException e) {
+            // Fichier supprimé hors du proxy : l'entrée est oubliée
+            synchronized (entries) {
+                Long size = entries.remove(key);
+                if (size != null) totalSize -= size;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Supprime les entrées les moins récemment utilisées jusqu'à repasser sous la taille maximale.
+     * Doit être appelée en tenant le verrou de {@link #entries}.
+     * @param keep Clé à ne pas supprimer (entrée en cours d'envoi)
+     */
+    private void evict(String keep) {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalSize > maxSize && iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            if (entry.getKey().equals(keep)) continue;
+            try {
+                Files.deleteIfExists(cacheDir.resolve(entry.getKey().substring(0, 2)).resolve(entry.getKey()));
+            } catch (IOException e) {
+                Logger.error("Proxy : impossible de supprimer " + entry.getKey() + " du cache : " + e.getMessage());
+                continue;
+            }
+            totalSize -= entry.getValue();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Charge les entrées déjà présentes dans le cache, dans l'ordre de leur dernière utilisation.
+     */
+    private void loadEntries() throws IOException {
+        Files.createDirectories(cacheDir);
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> shards = Files.newDirectoryStream(cacheDir, Files::isDirectory)) {
+            for (Path shard : shards) {
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(shard)) {
+                    for (Path file : stream) {
+                        if (file.getFileName().toString().endsWith(TEMP_EXTENSION)) Files.deleteIfExists(file);
+                        else files.add(file);
+                    }
+                }
+            }
+        }
+
+        Map<Path, Long> lastUse = new HashMap<>();
+        for (Path file : files) lastUse.put(file, Files.getLastModifiedTime(file).toMillis());
+        files.sort(Comparator.comparingLong(lastUse::get));
+
+        synchronized (entries) {
+            for (Path file : files) {
+                long size = Files.size(file);
+                entries.put(file.getFileName().toString(), size);
+                totalSize += size;
+            }
+            evict(null);
+        }
+    }
+
+    /**
+     * Extrait l'URL d'origine du paramètre {@code url} de la requête.
+     */
+    private static String getTargetUrl(String rawQuery) {
+        if (rawQuery == null) return null;
+        for (String parameter : rawQuery.split("&")) {
+            if (parameter.startsWith("url=")) {
+                return URLDecoder.decode(parameter.substring("url=".length()), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Clé de cache d'une URL : son SHA-256 en hexadécimal.
+     */
+    private static String key(String url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(FileManager.SHA256);
+            return FileManager.toHex(digest.digest(url.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
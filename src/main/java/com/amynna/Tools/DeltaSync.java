@@ -0,0 +1,524 @@
+package com.amynna.Tools;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Mises à jour différentielles à la manière de zsync.
+ * Le serveur publie à côté de chaque gros fichier une carte de blocs ({@value #BLOCK_MAP_EXTENSION}) :
+ * pour chaque bloc de taille fixe, une somme de contrôle glissante (faible) et un hachage court (fort).
+ * Le client retrouve dans son ancienne copie les blocs inchangés, même décalés, ne demande que les blocs
+ * manquants par requêtes {@code Range}, et reconstruit la nouvelle version. Le résultat est ensuite
+ * vérifié comme un téléchargement complet (signature ou SHA) : la carte ne sert qu'à économiser le réseau.
+ * <pre>
+ * { "version": 1, "size": 123456, "block_size": 4096, "weak": [ ... ], "strong": [ "9f1c...", ... ] }
+ * </pre>
+ */
+public final class DeltaSync {
+
+    // ---- [ ATTRIBUTS ] ----
+
+    /** Extension des cartes de blocs publiées à côté des fichiers. */
+    public static final String BLOCK_MAP_EXTENSION = ".zsync";
+
+    /** Taille des blocs des cartes générées. */
+    private static final int DEFAULT_BLOCK_SIZE = 4096;
+    /** Algorithme du hachage fort des blocs (tronqué à 8 octets, l'intégrité étant vérifiée sur le fichier entier). */
+    private static final String STRONG_ALGORITHM = "MD5";
+    /** Taille maximale des blocs acceptée dans une carte publiée. */
+    private static final int MAX_BLOCK_SIZE = 1024 * 1024;
+    /** Taille de la fenêtre de lecture de l'ancienne copie pendant la recherche des blocs. */
+    private static final int WINDOW_SIZE = 1024 * 1024;
+    /** Écart maximal entre deux blocs manquants pour les demander dans la même requête. */
+    private static final long RANGE_MERGE_GAP = 16L * 1024;
+
+    /** Répertoire local des cartes de blocs déjà traitées. */
+    private static final File MAP_CACHE_DIR = new File(AppProperties.CACHE_DIR + File.separator + "zsync" + File.separator);
+
+    /**
+     * Carte de blocs d'un fichier.
+     * @param size Taille du fichier
+     * @param blockSize Taille des blocs (le dernier peut être plus court)
+     * @param weak Somme glissante de chaque bloc
+     * @param strong Hachage fort tronqué de chaque bloc
+     */
+    private record BlockMap(long size, int blockSize, int[] weak, long[] strong) {
+
+        private int blockCount() {
+            return weak.length;
+        }
+
+        private int blockLength(int index) {
+            return (int) Math.min(blockSize, size - (long) index * blockSize);
+        }
+    }
+
+    /**
+     * Fenêtre glissante sur un fichier : garde en mémoire la portion en cours d'examen,
+     * sans jamais charger le fichier entier.
+     */
+    private static final class ChannelWindow {
+
+        private final FileChannel channel;
+        private final byte[] data;
+        /** Position dans le fichier du premier octet de la fenêtre. */
+        private long start;
+        /** Nombre d'octets valides dans la fenêtre. */
+        private int length;
+
+        private ChannelWindow(FileChannel channel, int blockSize) {
+            this.channel = channel;
+            this.data = new byte[Math.max(WINDOW_SIZE, blockSize + 1)];
+        }
+
+        /**
+         * Garantit la présence des octets {@code [position, position + span)} dans la fenêtre,
+         * en conservant ceux déjà lus et en lisant la suite du fichier.
+         */
+        private void fill(long position, int span) throws IOException {
+            if (position >= start && position + span <= start + length) return;
+
+            int keep = position >= start && position < start + length ? (int) (start + length - position) : 0;
+            System.arraycopy(data, length - keep, data, 0, keep);
+            start = position;
+
+            ByteBuffer buffer = ByteBuffer.wrap(data, keep, data.length - keep);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) == -1) break;
+            }
+            length = buffer.position();
+            if (length < span) throw new EOFException("Fichier modifié pendant la lecture");
+        }
+
+        private int get(long position) {
+            return data[(int) (position - start)] & 0xff;
+        }
+
+        private int index(long position) {
+            return (int) (position - start);
+        }
+    }
+
+    private DeltaSync() {
+        // Constructeur privé pour empêcher l'instanciation
+        Logger.fatal("DeltaSync ne peut pas être instancié.");
+    }
+
+    // ---- [ MÉTHODES PUBLIQUES ] ----
+
+    /**
+     * Met à jour un fichier local vers la nouvelle version publiée, en ne téléchargeant que les blocs modifiés.
+     * Sans effet si aucune carte n'est publiée, si elle n'a pas changé depuis la dernière mise à jour réussie,
+     * ou si le serveur ne gère pas les requêtes partielles : le téléchargement habituel prend alors le relais.
+     * Le fichier reconstruit n'est pas vérifié ici : l'appelant doit contrôler sa signature ou son SHA.
+     * @param url URL du fichier sur le serveur
+     * @param destination Ancienne copie locale, remplacée par la nouvelle version
+     * @return Les en-têtes HTTP de la nouvelle version (ETag, Last-Modified) si le fichier a été reconstruit, null sinon
+     */
+    public static HttpHeaders update(String url, Path destination) {
+
+        try {
+            if (!Files.isRegularFile(destination)) return null;
+
+            JSONObject json = fetchBlockMap(url);
+            if (json == null) return null;
+            BlockMap map = parseBlockMap(json);
+            if (map == null) {
+                Logger.error("Carte de blocs invalide : " + url + BLOCK_MAP_EXTENSION);
+                return null;
+            }
+
+            Path partFile = FileManager.getPartFile(destination);
+            HttpHeaders headers;
+            try (FileChannel local = FileChannel.open(destination, StandardOpenOption.READ)) {
+                long[] sources = locateBlocks(local, map);
+
+                // Ancienne copie déjà identique à la nouvelle version
+                if (local.size() == map.size() && isInPlace(sources, map)) {
+                    saveBlockMap(url, json);
+                    return null;
+                }
+
+                headers = rebuild(url, local, map, sources, partFile);
+            }
+            if (headers == null) {
+                Files.deleteIfExists(partFile);
+                return null;
+            }
+            Files.move(partFile, destination, StandardCopyOption.REPLACE_EXISTING);
+
+            // Carte retenue seulement une fois la nouvelle version en place : un échec la fera retraiter
+            saveBlockMap(url, json);
+            return headers;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (IOException e) {
+            Logger.error("Mise à jour différentielle impossible pour " + url + " : " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Génère la carte de blocs d'un fichier, à publier à côté de lui sur le serveur (commande d'administration).
+     * @param file Fichier à publier
+     * @return La carte de blocs écrite ({@code <fichier>.zsync}), ou null en cas d'erreur
+     */
+    public static File writeBlockMap(File file) {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()), WINDOW_SIZE)) {
+            long size = Files.size(file.toPath());
+            int blockSize = DEFAULT_BLOCK_SIZE;
+            int count = (int) ((size + blockSize - 1) / blockSize);
+
+            // Lecture bloc par bloc : le fichier n'est jamais chargé en entier
+            JSONArray weak = new JSONArray();
+            JSONArray strong = new JSONArray();
+            MessageDigest digest = newStrongDigest();
+            byte[] block = new byte[blockSize];
+            for (int i = 0; i < count; i++) {
+                int length = (int) Math.min(blockSize, size - (long) i * blockSize);
+                if (in.readNBytes(block, 0, length) != length) throw new EOFException("Fichier modifié pendant la lecture");
+                weak.put(weakChecksum(block, 0, length));
+                strong.put(String.format("%016x", strongChecksum(digest, block, 0, length)));
+            }
+
+            File mapFile = new File(file.getPath() + BLOCK_MAP_EXTENSION);
+            JSONObject json = new JSONObject()
+                    .put("version", 1)
+                    .put("size", size)
+                    .put("block_size", blockSize)
+                    .put("weak", weak)
+                    .put("strong", strong);
+            Files.writeString(mapFile.toPath(), json.toString(), StandardCharsets.UTF_8);
+            Logger.log(Logger.GREEN + "Carte de blocs générée : " + mapFile + " (" + count + " blocs)");
+            return mapFile;
+
+        } catch (IOException e) {
+            Logger.error("Erreur lors de la génération de la carte de blocs de " + file + " : " + e.getMessage());
+            return null;
+        }
+    }
+
+    // ---- [ MÉTHODES PRIVÉES ] ----
+
+    /**
+     * Récupère la carte de blocs publiée pour un fichier, si elle a changé depuis la dernière mise à jour réussie.
+     * Ses validateurs (ETag, Last-Modified) y sont ajoutés, pour {@link #saveBlockMap}.
+     * @return La carte JSON, ou null si elle est absente ou inchangée
+     */
+    private static JSONObject fetchBlockMap(String url) throws IOException, InterruptedException {
+        Path cached = getCachedMap(url);
+        JSONObject previous = Files.isRegularFile(cached) ? FileManager.openJsonFile(cached.toFile()) : null;
+
+        HttpRequest.Builder builder = HttpTransport.request(url + BLOCK_MAP_EXTENSION).GET();
+        if (previous != null) {
+            if (previous.has("etag")) builder.header("If-None-Match", previous.getString("etag"));
+            if (previous.has("last_modified")) builder.header("If-Modified-Since", previous.getString("last_modified"));
+        }
+
+        HttpResponse<InputStream> response = HttpTransport.openStream(builder.build());
+        // Carte absente, ou inchangée (304) : le fichier aussi, la copie locale est déjà à jour
+        if (response.statusCode() != HttpURLConnection.HTTP_OK) {
+            response.body().close();
+            return null;
+        }
+
+        JSONObject json;
+        try (InputStream body = response.body()) {
+            json = new JSONObject(new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        response.headers().firstValue("ETag").ifPresent(etag -> json.put("etag", etag));
+        response.headers().firstValue("Last-Modified").ifPresent(lastModified -> json.put("last_modified", lastModified));
+        return json;
+    }
+
+    /**
+     * Conserve une carte de blocs avec ses validateurs, pour ne pas la retraiter tant qu'elle n'a pas changé.
+     * À n'appeler qu'une fois la copie locale à jour.
+     */
+    private static void saveBlockMap(String url, JSONObject json) throws IOException {
+        Path cached = getCachedMap(url);
+        Files.createDirectories(cached.getParent());
+        Files.writeString(cached, json.toString(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Convertit une carte de blocs JSON.
+     */
+    private static BlockMap parseBlockMap(JSONObject json) {
+        if (json.optInt("version") != 1) return null;
+        long size = json.getLong("size");
+        int blockSize = json.getInt("block_size");
+        JSONArray weakJson = json.getJSONArray("weak");
+        JSONArray strongJson = json.getJSONArray("strong");
+        if (blockSize <= 0 || blockSize > MAX_BLOCK_SIZE || weakJson.length() != strongJson.length()
+                || weakJson.length() != (size + blockSize - 1) / blockSize) return null;
+
+        int[] weak = new int[weakJson.length()];
+        long[] strong = new long[strongJson.length()];
+        for (int i = 0; i < weak.length; i++) {
+            weak[i] = weakJson.getInt(i);
+            strong[i] = Long.parseUnsignedLong(strongJson.getString(i), 16);
+        }
+        return new BlockMap(size, blockSize, weak, strong);
+    }
+
+    /**
+     * Recherche les blocs de la nouvelle version dans l'ancienne copie, à n'importe quelle position
+     * (algorithme de rsync : somme glissante mise à jour octet par octet, confirmée par le hachage fort).
+     * L'ancienne copie est parcourue à travers une fenêtre glissante, sans être chargée en entier.
+     * @return Pour chaque bloc, sa position dans l'ancienne copie, ou -1 s'il faut le télécharger
+     */
+    private static long[] locateBlocks(FileChannel local, BlockMap map) throws IOException {
+        long[] sources = new long[map.blockCount()];
+        Arrays.fill(sources, -1);
+        int blockSize = map.blockSize();
+        MessageDigest digest = newStrongDigest();
+
+        // Index des blocs complets par somme faible
+        Map<Integer, List<Integer>> byWeak = new HashMap<>();
+        for (int i = 0; i < map.blockCount(); i++) {
+            if (map.blockLength(i) == blockSize) byWeak.computeIfAbsent(map.weak()[i], key -> new ArrayList<>(1)).add(i);
+        }
+
+        long localSize = local.size();
+        if (localSize >= blockSize && !byWeak.isEmpty()) {
+            ChannelWindow window = new ChannelWindow(local, blockSize);
+            long offset = 0;
+            window.fill(offset, blockSize);
+            int a = 0, b = 0;
+            for (int i = 0; i < blockSize; i++) {
+                a += window.get(offset + i);
+                b += (blockSize - i) * window.get(offset + i);
+            }
+
+            while (true) {
+                boolean matched = false;
+                List<Integer> candidates = byWeak.get(pack(a, b));
+                if (candidates != null) {
+                    long strong = strongChecksum(digest, window.data, window.index(offset), blockSize);
+                    for (int index : candidates) {
+                        if (sources[index] < 0 && map.strong()[index] == strong) {
+                            sources[index] = offset;
+                            matched = true;
+                        }
+                    }
+                }
+
+                if (matched) {
+                    // Bloc trouvé : on reprend la recherche juste après lui
+                    offset += blockSize;
+                    if (offset + blockSize > localSize) break;
+                    window.fill(offset, blockSize);
+                    a = 0;
+                    b = 0;
+                    for (int i = 0; i < blockSize; i++) {
+                        a += window.get(offset + i);
+                        b += (blockSize - i) * window.get(offset + i);
+                    }
+                } else {
+                    if (offset + blockSize >= localSize) break;
+                    window.fill(offset, blockSize + 1);
+                    int out = window.get(offset);
+                    int in = window.get(offset + blockSize);
+                    a += in - out;
+                    b += a - blockSize * out;
+                    offset++;
+                }
+            }
+        }
+
+        // Dernier bloc incomplet : comparé à la fin de l'ancienne copie
+        int last = map.blockCount() - 1;
+        int lastLength = last >= 0 ? map.blockLength(last) : 0;
+        if (lastLength > 0 && lastLength < blockSize && localSize >= lastLength) {
+            ByteBuffer tail = ByteBuffer.allocate(lastLength);
+            while (tail.hasRemaining()) {
+                if (local.read(tail, localSize - lastLength + tail.position()) == -1) throw new EOFException("Fichier modifié pendant la lecture");
+            }
+            if (map.strong()[last] == strongChecksum(digest, tail.array(), 0, lastLength)) sources[last] = localSize - lastLength;
+        }
+        return sources;
+    }
+
+    /**
+     * Reconstruit la nouvelle version : blocs retrouvés copiés depuis l'ancienne copie, blocs manquants téléchargés.
+     * @return Les en-têtes HTTP de la nouvelle version, ou null si le serveur refuse les requêtes partielles
+     */
+    private static HttpHeaders rebuild(String url, FileChannel local, BlockMap map, long[] sources, Path partFile)
+            throws IOException, InterruptedException {
+
+        long reused = 0;
+        HttpHeaders headers = null;
+
+        Files.createDirectories(partFile.getParent());
+        try (FileChannel out = FileChannel.open(partFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            // 1. Blocs présents localement, copiés de fichier à fichier ; les blocs contigus dans
+            // l'ancienne copie comme dans la nouvelle version sont copiés d'un seul tenant
+            for (int i = 0; i < map.blockCount(); ) {
+                if (sources[i] < 0) {
+                    i++;
+                    continue;
+                }
+                long source = sources[i];
+                long length = map.blockLength(i);
+                out.position((long) i * map.blockSize());
+                for (i++; i < map.blockCount() && sources[i] == source + length; i++) length += map.blockLength(i);
+
+                for (long copied = 0; copied < length; ) {
+                    long transferred = local.transferTo(source + copied, length - copied, out);
+                    if (transferred <= 0) throw new EOFException("Fichier modifié pendant la lecture");
+                    copied += transferred;
+                }
+                reused += length;
+            }
+
+            // 2. Blocs manquants, regroupés en plages
+            for (long[] range : missingRanges(map, sources)) {
+                headers = fetchRange(url, out, range[0], range[1]);
+                if (headers == null) return null;
+            }
+
+            out.truncate(map.size());
+        }
+
+        // Tout a été retrouvé localement : les validateurs de la nouvelle version sont demandés à part
+        if (headers == null) {
+            HttpRequest request = HttpTransport.request(url).method("HEAD", HttpRequest.BodyPublishers.noBody()).build();
+            HttpResponse<InputStream> response = HttpTransport.openStream(request);
+            response.body().close();
+            headers = response.headers();
+        }
+
+        Logger.log(Logger.BLUE + "🧩 Mise à jour différentielle de " + url + " : "
+                + reused / 1024 + " Kio réutilisés, " + (map.size() - reused) / 1024 + " Kio téléchargés");
+        return headers;
+    }
+
+    /**
+     * Plages d'octets à télécharger : blocs manquants consécutifs (ou séparés par un petit écart) regroupés.
+     * @return Les plages, bornes incluses
+     */
+    private static List<long[]> missingRanges(BlockMap map, long[] sources) {
+        List<long[]> ranges = new ArrayList<>();
+        for (int i = 0; i < map.blockCount(); i++) {
+            if (sources[i] >= 0) continue;
+            long start = (long) i * map.blockSize();
+            long end = start + map.blockLength(i) - 1;
+            long[] previous = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+            if (previous != null && start - previous[1] - 1 <= RANGE_MERGE_GAP) previous[1] = end;
+            else ranges.add(new long[] { start, end });
+        }
+        return ranges;
+    }
+
+    /**
+     * Télécharge une plage d'octets et l'écrit à sa position dans le fichier reconstruit.
+     * @return Les en-têtes de la réponse, ou null si le serveur ne renvoie pas la plage demandée
+     */
+    private static HttpHeaders fetchRange(String url, FileChannel out, long start, long end) throws IOException, InterruptedException {
+        HttpRequest request = HttpTransport.request(url).header("Range", "bytes=" + start + "-" + end).GET().build();
+        HttpResponse<InputStream> response = HttpTransport.openStream(request);
+        if (response.statusCode() != HttpURLConnection.HTTP_PARTIAL
+                || !response.headers().firstValue("Content-Range").orElse("").startsWith("bytes " + start + "-")) {
+            response.body().close();
+            Logger.log("Requêtes partielles non prises en charge (" + response.statusCode() + "), téléchargement complet : " + url);
+            return null;
+        }
+
+        try (ReadableByteChannel in = Channels.newChannel(response.body())) {
+            ByteBuffer buffer = FileManager.ioBuffer();
+            long position = start;
+            while (position <= end) {
+                // Ne jamais lire au-delà de la plage demandée
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), end - position + 1));
+                int bytesRead = in.read(buffer);
+                if (bytesRead == -1) throw new IOException("flux terminé avant la fin de la plage");
+                BandwidthLimiter.acquire(bytesRead);
+                buffer.flip();
+                while (buffer.hasRemaining()) position += out.write(buffer, position);
+            }
+        }
+        return response.headers();
+    }
+
+    /**
+     * Indique si tous les blocs sont déjà à leur place dans l'ancienne copie.
+     */
+    private static boolean isInPlace(long[] sources, BlockMap map) {
+        for (int i = 0; i < sources.length; i++) {
+            if (sources[i] != (long) i * map.blockSize()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Somme de contrôle faible d'un bloc (somme d'Adler modifiée de rsync, sur 2 × 16 bits).
+     */
+    private static int weakChecksum(byte[] data, int offset, int length) {
+        int a = 0, b = 0;
+        for (int i = 0; i < length; i++) {
+            a += data[offset + i] & 0xff;
+            b += (length - i) * (data[offset + i] & 0xff);
+        }
+        return pack(a, b);
+    }
+
+    /**
+     * Assemble les deux moitiés de la somme faible.
+     */
+    private static int pack(int a, int b) {
+        return (a & 0xffff) | (b << 16);
+    }
+
+    /**
+     * Hachage fort d'un bloc, tronqué à 8 octets.
+     */
+    private static long strongChecksum(MessageDigest digest, byte[] data, int offset, int length) {
+        digest.update(data, offset, length);
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
+
+    private static MessageDigest newStrongDigest() {
+        try {
+            return MessageDigest.getInstance(STRONG_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Emplacement de la carte en cache pour une URL.
+     */
+    private static Path getCachedMap(String url) {
+        try {
+            String key = FileManager.toHex(MessageDigest.getInstance(FileManager.SHA1).digest(url.getBytes(StandardCharsets.UTF_8)));
+            return MAP_CACHE_DIR.toPath().resolve(key + ".json");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
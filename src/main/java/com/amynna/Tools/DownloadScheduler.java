@@ -0,0 +1,185 @@
+package com.amynna.Tools;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Planificateur de téléchargements partagé par tout le launcher.
+ * Les téléchargements sont soumis par lots ({@link Batch}) à un pool de workers borné,
+ * puis attendus ensemble avec un rapport agrégé des échecs.
+ * La file d'attente est ordonnée par {@link Priority} : un téléchargement nécessaire au lancement
+ * passe toujours avant ceux qui peuvent attendre.
+ */
+public final class DownloadScheduler {
+
+    // ---- [ ATTRIBUTS ] ----
+
+    /** Instance unique du planificateur (singleton). */
+    private static DownloadScheduler instance;
+
+    /** Pool de workers borné exécutant les téléchargements. */
+    private final ThreadPoolExecutor workers;
+
+    /** Compteur de soumission, pour conserver l'ordre FIFO à priorité égale. */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /** Classes de priorité des téléchargements, de la plus urgente à la moins urgente. */
+    public enum Priority {
+        /** Bloque le lancement du jeu (bibliothèques, client, Forge). */
+        CRITICAL,
+        /** Nécessaire en jeu (assets, mods). */
+        GAMEPLAY,
+        /** Peut être différé, téléchargé avec la limite de débit d'arrière-plan (sons). */
+        DEFERRABLE
+    }
+
+    /** Tâche de la file d'attente, ordonnée par priorité puis par ordre de soumission. */
+    private record PrioritizedTask(Priority priority, long order, Runnable task)
+            implements Runnable, Comparable<PrioritizedTask> {
+
+        @Override
+        public void run() {
+            task.run();
+        }
+
+        @Override
+        public int compareTo(PrioritizedTask other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(order, other.order);
+        }
+    }
+
+    /**
+     * Lot de téléchargements soumis au planificateur.
+     * Chaque tâche retourne le fichier téléchargé, ou null en cas d'échec.
+     */
+    public final class Batch {
+
+        /** Nom du lot (pour les logs). */
+        private final String name;
+
+        /** Tâches soumises, associées à leur libellé. */
+        private final List<Job> jobs = new LinkedList<>();
+
+        /** Tâche individuelle d'un lot. */
+        private record Job(String label, Priority priority, Future<File> future) {}
+
+        /** Constructeur privé, utiliser {@link DownloadScheduler#batch(String)}. */
+        private Batch(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Soumet un téléchargement au pool avec la priorité {@link Priority#GAMEPLAY}.
+         * @param label Libellé du téléchargement (pour le rapport d'échecs).
+         * @param download Tâche de téléchargement, retourne null en cas d'échec.
+         */
+        public void submit(String label, Supplier<File> download) {
+            submit(label, Priority.GAMEPLAY, download);
+        }
+
+        /**
+         * Soumet un téléchargement au pool.
+         * @param label Libellé du téléchargement (pour le rapport d'échecs).
+         * @param priority Priorité du téléchargement.
+         * @param download Tâche de téléchargement, retourne null en cas d'échec.
+         */
+        public synchronized void submit(String label, Priority priority, Supplier<File> download) {
+            // Les téléchargements différables sont soumis à la limite de débit d'arrière-plan
+            FutureTask<File> future = new FutureTask<>(() ->
+                    priority == Priority.DEFERRABLE ? BandwidthLimiter.runInBackground(download) : download.get());
+            workers.execute(new PrioritizedTask(priority, sequence.getAndIncrement(), future));
+            jobs.add(new Job(label, priority, future));
+        }
+
+        /**
+         * Attend la fin de tous les téléchargements du lot et affiche un rapport des échecs.
+         * @return La liste des libellés des téléchargements échoués (vide si tout a réussi).
+         */
+        public List<String> await() {
+            return await(Priority.DEFERRABLE);
+        }
+
+        /**
+         * Attend la fin des téléchargements du lot dont la priorité est au moins celle donnée,
+         * et affiche un rapport des échecs. Les téléchargements moins urgents continuent en arrière-plan.
+         * @param priority Priorité la moins urgente à attendre.
+         * @return La liste des libellés des téléchargements échoués (vide si tout a réussi).
+         */
+        public List<String> await(Priority priority) {
+            List<Job> pending = new LinkedList<>();
+            synchronized (this) {
+                Iterator<Job> iterator = jobs.iterator();
+                while (iterator.hasNext()) {
+                    Job job = iterator.next();
+                    if (job.priority.compareTo(priority) <= 0) {
+                        pending.add(job);
+                        iterator.remove();
+                    }
+                }
+            }
+
+            List<String> failures = new LinkedList<>();
+            for (Job job : pending) {
+                try {
+                    File file = job.future.get();
+                    if (file == null || !file.exists()) failures.add(job.label);
+                } catch (ExecutionException e) {
+                    Logger.error("Erreur lors du téléchargement de " + job.label + " : " + e.getCause());
+                    failures.add(job.label);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failures.add(job.label);
+                }
+            }
+
+            if (failures.isEmpty()) {
+                if (!pending.isEmpty()) Logger.log(Logger.GREEN + "[" + name + "] " + pending.size() + " téléchargement(s) terminé(s).");
+            } else {
+                Logger.error("[" + name + "] " + failures.size() + " téléchargement(s) échoué(s) sur " + pending.size() + " :");
+                for (String failure : failures) Logger.error("   - " + failure);
+            }
+            return failures;
+        }
+    }
+
+    /** Constructeur privé pour le singleton. */
+    private DownloadScheduler(int threadCount) {
+        this.workers = new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "download-worker");
+            thread.setDaemon(true); // Ne bloque pas l'arrêt de l'application
+            return thread;
+        });
+        // Workers démarrés d'avance : toute soumission passe par la file de priorité
+        this.workers.prestartAllCoreThreads();
+    }
+
+    // ---- [ MÉTHODES PUBLIQUES ] ----
+
+    /**
+     * Récupère l'instance unique du planificateur.
+     * @return {@code DownloadScheduler} Le planificateur partagé.
+     */
+    public static synchronized DownloadScheduler get() {
+        if (instance == null) {
+            instance = new DownloadScheduler(AppProperties.DOWNLOAD_THREADS);
+        }
+        return instance;
+    }
+
+    /**
+     * Crée un nouveau lot de téléchargements.
+     * @param name Nom du lot (pour les logs).
+     * @return Le lot créé.
+     */
+    public Batch batch(String name) {
+        return new Batch(name);
+    }
+
+}
@@ -17,15 +17,7 @@ public class Encrypter {
         try {
             MessageDigest digest = MessageDigest.getInstance(algorithm);
             byte[] hashBytes = digest.digest(input.getBytes(StandardCharsets.UTF_8));
-
-            // Conversion en hexadécimal
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hashBytes) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) hexString.append('0');
-                hexString.append(hex);
-            }
-            return hexString.toString();
+            return Hasher.toHex(hashBytes);
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException("Algorithme non supporté : " + algorithm, e);
         }
@@ -4,19 +4,25 @@ import org.json.JSONObject;
 
 import java.io.*;
 import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
+import java.nio.file.*;
+import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Gestionnaire de fichiers pour le téléchargement et la lecture de fichiers.
@@ -27,6 +33,31 @@ public final class FileManager {
     public static final String SHA256 = "SHA-256";
     public static final String SHA512 = "SHA-512";
 
+    /** Extension des fichiers en cours de téléchargement. */
+    public static final String PART_FILE_EXTENSION = ".part";
+    /** Code HTTP 416 : plage demandée non satisfaisable. */
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+    /** Code HTTP 429 : trop de requêtes. */
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    /** Taille du tampon d'entrées/sorties de chaque thread. */
+    private static final int IO_BUFFER_SIZE = 256 * 1024;
+    /** Tampons d'entrées/sorties directs, un par thread (les workers du planificateur sont réutilisés). */
+    private static final ThreadLocal<ByteBuffer> IO_BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(IO_BUFFER_SIZE));
+
+    /** Verrous par fichier de destination : deux téléchargements du même fichier (et du même {@code .part}) ne se chevauchent pas. */
+    private static final Map<Path, Object> DESTINATION_LOCKS = new ConcurrentHashMap<>();
+
+    /** Résultat d'une tentative de téléchargement. */
+    private record Attempt(File file, boolean retryable) {}
+
+    /**
+     * Résultat d'un téléchargement conditionnel.
+     * @param file Le fichier local
+     * @param unchanged true si le serveur a confirmé que la copie locale est à jour (304)
+     */
+    public record CachedFile(File file, boolean unchanged) {}
+
 
     private FileManager() {
         // Constructeur privé pour empêcher l'instanciation
@@ -36,37 +67,156 @@ public final class FileManager {
     /**
      * Télécharge un fichier depuis une URL et le sauvegarde dans le chemin spécifié.
      * Si le chemin de destination est un répertoire, le nom du fichier est déterminé automatiquement.
+     * Les données sont écrites dans un fichier {@code .part} conservé en cas d'échec : la tentative
+     * suivante reprend là où la précédente s'est arrêtée (requête Range) si le serveur le permet.
+     * La reprise est conditionnée à la version déjà reçue (If-Range) : si le fichier a changé sur le serveur,
+     * il est retéléchargé en entier au lieu de recoller des octets de deux versions différentes.
      * @param url URL du fichier à télécharger
      * @param destinationPath Chemin de destination (fichier ou répertoire)
      * @return Le fichier téléchargé, ou null en cas d'erreur
      */
     public static File downloadFile(String url, String destinationPath) {
+        return download(url, destinationPath, null, null, -1);
+    }
+
+    /**
+     * Télécharge un fichier en calculant son hachage pendant l'écriture (un seul passage sur les données).
+     * Le fichier partiel n'est déplacé vers sa destination que si le hachage correspond.
+     * Chaque échec est suivi de nouvelles tentatives espacées (délai exponentiel avec gigue),
+     * sur l'origine ou ses miroirs selon leur latence mesurée ({@link MirrorSelector}).
+     * @param url URL du fichier à télécharger
+     * @param destinationPath Chemin de destination (fichier ou répertoire)
+     * @param expectedSha Hachage attendu, ou null pour ne pas vérifier
+     * @param shaType Algorithme de hachage (SHA-1, SHA-256, SHA-512), ou null pour ne pas vérifier
+     * @param expectedSize Taille attendue du fichier, pour détecter un corps tronqué (-1 si inconnue)
+     * @return Le fichier téléchargé et vérifié, ou null en cas d'erreur
+     */
+    private static File download(String url, String destinationPath, String expectedSha, String shaType, long expectedSize) {
+
+        // Destination connue : un seul téléchargement à la fois vers ce fichier
+        Path destination = Paths.get(destinationPath);
+        if (!Files.isDirectory(destination)) {
+            synchronized (lockFor(destination)) {
+                return downloadWithRetries(url, destinationPath, expectedSha, shaType, expectedSize);
+            }
+        }
+        return downloadWithRetries(url, destinationPath, expectedSha, shaType, expectedSize);
+    }
+
+    /**
+     * Télécharge un fichier, avec nouvelles tentatives sur l'origine, ses miroirs et le proxy du site.
+     * @return Le fichier téléchargé et vérifié, ou null en cas d'erreur
+     */
+    private static File downloadWithRetries(String url, String destinationPath, String expectedSha, String shaType, long expectedSize) {
+
+        // Contenu vérifié par hachage, donc immuable : le proxy de cache du site est essayé en premier
+        String proxied = expectedSha != null ? HttpTransport.proxied(url) : null;
+
+        Set<String> refused = new HashSet<>();
+        for (int attempt = 1; attempt <= AppProperties.DOWNLOAD_RETRIES; attempt++) {
+
+            // Candidats reclassés à chaque tentative : un hôte lent ou en échec passe derrière les autres
+            List<String> candidates = new ArrayList<>();
+            if (proxied != null) candidates.add(proxied);
+            candidates.addAll(MirrorSelector.candidates(url));
+
+            String candidate = null;
+            for (String c : candidates) {
+                if (!refused.contains(c)) { candidate = c; break; }
+            }
+            if (candidate == null) break;
+
+            if (attempt > 1) {
+                Logger.error("Tentative " + (attempt - 1) + "/" + AppProperties.DOWNLOAD_RETRIES + " échouée pour " + url + ", nouvel essai...");
+                try {
+                    MirrorSelector.backoff(attempt - 1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+
+            Attempt result = downloadOnce(candidate, destinationPath, expectedSha, shaType, expectedSize);
+            if (result.file() != null) return result.file();
+            // Proxy en échec : repli immédiat sur l'accès direct
+            if (!result.retryable() || candidate.equals(proxied)) refused.add(candidate);
+            if (Thread.currentThread().isInterrupted()) return null;
+        }
+
+        Logger.error("Abandon du téléchargement de " + url);
+        return null;
+    }
+
+    /**
+     * Effectue une tentative de téléchargement depuis une URL (origine ou miroir).
+     * @return Le résultat de la tentative : le fichier, ou null et l'indication qu'une nouvelle tentative a un sens
+     */
+    private static Attempt downloadOnce(String url, String destinationPath, String expectedSha, String shaType, long expectedSize) {
 
         try {
 
-            URL website = new URL(url);
+            // Destination connue à l'avance : une reprise est possible
+            Path destination = Paths.get(destinationPath);
+            boolean toDirectory = Files.isDirectory(destination) || destinationPath.endsWith("/") || destinationPath.endsWith("\\");
+            long resumeFrom = 0;
+            String ifRange = null;
+            if (!toDirectory) {
+                Path partFile = getPartFile(destination);
+                if (Files.isRegularFile(partFile)) {
+                    resumeFrom = Files.size(partFile);
+                    ifRange = loadPartValidator(partFile);
+                    // Ni validateur ni hachage : rien ne garantit que les octets reçus sont ceux de la version actuelle
+                    if (ifRange == null && expectedSha == null) {
+                        Files.delete(partFile);
+                        resumeFrom = 0;
+                    }
+                }
+            }
 
-            // Ouvrir la connexion HTTP
-            HttpURLConnection connection = (HttpURLConnection) website.openConnection();
-            connection.setRequestProperty("User-Agent", "Mozilla/5.0");
-            connection.connect();
+            // Envoyer la requête via le client HTTP partagé
+            HttpRequest.Builder builder = HttpTransport.request(url).GET();
+            if (resumeFrom > 0) {
+                builder.header("Range", "bytes=" + resumeFrom + "-");
+                // Ressource modifiée depuis : le serveur renvoie le fichier complet (200) au lieu de la plage
+                if (ifRange != null) builder.header("If-Range", ifRange);
+            }
+            HttpRequest request = builder.build();
+            long start = System.nanoTime();
+            HttpResponse<InputStream> response = HttpTransport.openStream(request);
+
+            // Le serveur a refusé la plage : le fichier partiel est obsolète, on repart de zéro
+            if (resumeFrom > 0 && response.statusCode() == HTTP_RANGE_NOT_SATISFIABLE) {
+                response.body().close();
+                Files.deleteIfExists(getPartFile(destination));
+                deletePartValidator(getPartFile(destination));
+                return downloadOnce(url, destinationPath, expectedSha, shaType, expectedSize);
+            }
+
+            // Reprise acceptée uniquement si la plage renvoyée commence au bon octet
+            boolean resumed = resumeFrom > 0
+                    && response.statusCode() == HttpURLConnection.HTTP_PARTIAL
+                    && response.headers().firstValue("Content-Range").orElse("").startsWith("bytes " + resumeFrom + "-");
 
-            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
-                throw new IOException("Échec du téléchargement, code HTTP : " + connection.getResponseCode());
+            if (!resumed && response.statusCode() != HttpURLConnection.HTTP_OK) {
+                response.body().close(); // Rend la connexion au pool
+                MirrorSelector.recordFailure(url);
+                Logger.error("Échec du téléchargement de " + url + ", code HTTP : " + response.statusCode());
+                return new Attempt(null, isRetryable(response.statusCode()));
             }
+            MirrorSelector.recordSuccess(url, (System.nanoTime() - start) / 1_000_000);
 
             // Déterminer le nom du fichier
             String fileName = null;
 
             // 1. Vérifier l'en-tête "Content-Disposition"
-            String disposition = connection.getHeaderField("Content-Disposition");
+            String disposition = response.headers().firstValue("Content-Disposition").orElse(null);
             if (disposition != null && disposition.contains("filename=")) {
                 fileName = disposition.split("filename=")[1].replace("\"", "").trim();
             }
 
             // 2. Sinon, prendre le dernier segment de l’URL
             if (fileName == null || fileName.isEmpty()) {
-                String urlPath = website.getPath();
+                String urlPath = request.uri().getPath();
                 fileName = urlPath.substring(urlPath.lastIndexOf("/") + 1);
                 if (fileName.isEmpty()) {
                     fileName = "downloaded_file"; // fallback
@@ -74,35 +224,72 @@ public final class FileManager {
             }
 
             // Construire le vrai chemin de destination
-            Path destination = Paths.get(destinationPath);
-            if (Files.isDirectory(destination) || destinationPath.endsWith("/") || destinationPath.endsWith("\\")) {
+            if (toDirectory) {
                 destination = destination.resolve(fileName);
             }
 
             // Créer les dossiers si besoin
             Files.createDirectories(destination.getParent());
 
-            // Télécharger le fichier
-            try (InputStream in = connection.getInputStream();
-                 OutputStream out = new BufferedOutputStream(Files.newOutputStream(destination))) {
-                byte[] buffer = new byte[8192];
-                int bytesRead;
-                while ((bytesRead = in.read(buffer)) != -1) {
-                    out.write(buffer, 0, bytesRead);
+            // Télécharger le fichier dans le fichier partiel (à la suite des octets déjà reçus si reprise)
+            Path partFile = getPartFile(destination);
+
+            // Nouvelle version : son validateur conditionnera une éventuelle reprise
+            if (!resumed && !toDirectory) savePartValidator(partFile, response.headers());
+
+            // Le hachage est calculé au fil de l'écriture ; en cas de reprise, il part des octets déjà reçus
+            MessageDigest digest = shaType == null ? null : MessageDigest.getInstance(shaType);
+            if (digest != null && resumed) Hasher.update(partFile, digest);
+
+            try {
+                writeBody(response.body(), partFile, resumed, digest, expectedSize);
+            } catch (IOException e) {
+                throw new IOException(e.getMessage() + " (" + Files.size(partFile) + " octets conservés pour reprise)", e);
+            }
+
+            // Vérifier le hachage avant de valider le fichier
+            if (digest != null) {
+                String calculatedSha = toHex(digest.digest());
+                if (!calculatedSha.equals(expectedSha)) {
+                    Files.deleteIfExists(partFile);
+                    deletePartValidator(partFile);
+                    MirrorSelector.recordFailure(url);
+                    Logger.error("Hachage " + shaType + " invalide pour " + url + " (attendu " + expectedSha + ", obtenu " + calculatedSha + ")");
+                    return new Attempt(null, true);
                 }
             }
 
+            // Téléchargement complet : le fichier partiel devient le fichier final
+            moveReplacing(partFile, destination);
+            deletePartValidator(partFile);
+
             File downloadedFile = destination.toFile();
-            Logger.log(Logger.BLUE + "\uD83D\uDCE5 Fichier téléchargé : " + url + " ➔ " + downloadedFile.getAbsolutePath());
+            Logger.log(Logger.BLUE + "\uD83D\uDCE5 Fichier téléchargé" + (resumed ? " (repris à " + resumeFrom + " octets)" : "") +
+                    " : " + url + " ➔ " + downloadedFile.getAbsolutePath());
 
-            return downloadedFile;
+            return new Attempt(downloadedFile, false);
 
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Logger.error("Téléchargement interrompu : " + url);
+            return new Attempt(null, false);
+        } catch (IOException e) {
+            MirrorSelector.recordFailure(url);
+            Logger.error("Erreur lors du téléchargement du fichier " + url + " : " + e.getMessage());
+            return new Attempt(null, true);
         } catch (Exception e) {
             Logger.error("Erreur lors du téléchargement du fichier " + url + " : " + e.getMessage());
-            return null;
+            return new Attempt(null, false);
         }
 
+    }
 
+    /**
+     * Indique si un code HTTP d'échec justifie une nouvelle tentative sur le même hôte :
+     * erreurs serveur, délai dépassé et limitation de débit. Les autres erreurs client sont définitives.
+     */
+    private static boolean isRetryable(int statusCode) {
+        return statusCode >= 500 || statusCode == HttpURLConnection.HTTP_CLIENT_TIMEOUT || statusCode == HTTP_TOO_MANY_REQUESTS;
     }
 
     /**
@@ -113,7 +300,8 @@ public final class FileManager {
     public static void createDirectoriesIfNotExist(String directoryPath) {
         File dir = new File(directoryPath);
         if (!dir.exists()) {
-            if (!dir.mkdirs()) {
+            // Un autre thread peut avoir créé le répertoire entre-temps
+            if (!dir.mkdirs() && !dir.isDirectory()) {
                 Logger.fatal("Échec de la création du répertoire : " + directoryPath);
             }
         } else if (!dir.isDirectory()) {
@@ -125,38 +313,231 @@ public final class FileManager {
         }
     }
 
+    /**
+     * Télécharge un fichier seulement s'il a changé sur le serveur (requête conditionnelle).
+     * Les validateurs de la réponse précédente (ETag, Last-Modified) sont renvoyés au serveur :
+     * si la copie locale est à jour, il répond 304 sans corps et le fichier n'est pas retéléchargé.
+     * @param url URL du fichier à télécharger
+     * @param destinationPath Chemin local du fichier (pas un répertoire)
+     * @return Le fichier et l'indication qu'il est inchangé, ou null en cas d'erreur
+     */
+    public static CachedFile downloadIfModified(String url, String destinationPath) {
+
+        Path destination = Paths.get(destinationPath);
+        JSONObject validators = loadValidators(destination);
+
+        HttpRequest.Builder builder = HttpTransport.request(url).GET();
+        if (validators != null) {
+            if (validators.has("etag")) builder.header("If-None-Match", validators.getString("etag"));
+            if (validators.has("last_modified")) builder.header("If-Modified-Since", validators.getString("last_modified"));
+        }
+
+        try {
+            HttpResponse<InputStream> response = HttpTransport.openStream(builder.build());
+
+            if (validators != null && response.statusCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                response.body().close();
+                Logger.log(Logger.BLUE + "📦 Fichier inchangé (304) : " + url);
+                return new CachedFile(destination.toFile(), true);
+            }
+
+            if (response.statusCode() == HttpURLConnection.HTTP_OK) {
+                Files.createDirectories(destination.getParent());
+                Path partFile = getPartFile(destination);
+                writeBody(response.body(), partFile, false, null, response.headers().firstValueAsLong("Content-Length").orElse(-1));
+                moveReplacing(partFile, destination);
+                saveValidators(destination, response.headers());
+                Logger.log(Logger.BLUE + "📥 Fichier téléchargé : " + url + " ➔ " + destination.toAbsolutePath());
+                return new CachedFile(destination.toFile(), false);
+            }
+
+            response.body().close();
+            Logger.error("Requête conditionnelle refusée (" + response.statusCode() + ") : " + url);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (IOException e) {
+            Logger.error("Erreur lors de la requête conditionnelle " + url + " : " + e.getMessage());
+        }
+
+        // Repli : téléchargement complet, avec nouvelles tentatives
+        File file = downloadFile(url, destinationPath);
+        return file == null ? null : new CachedFile(file, false);
+    }
+
     /**
      * Télécharge un fichier depuis une URL, le sauvegarde dans le chemin spécifié,
      * puis valide sa signature avec une clé publique de confiance.
      * Si la validation échoue, le fichier est supprimé.
+     * Lorsque la destination est un fichier, le fichier et sa signature sont demandés de façon conditionnelle :
+     * la signature est toujours contrôlée, mais le cache des signatures ({@link SignatureCache}) évite de la
+     * revérifier tant que le fichier, sa signature et les clés de confiance n'ont pas changé.
      * @param onServerPath URL du fichier à télécharger
      * @param destinationPath Chemin de destination (fichier ou répertoire)
      * @return Le fichier téléchargé et validé, ou null en cas d'erreur ou de validation échouée
      */
     public static SignedFile downloadAndValidateFile(String onServerPath, String destinationPath) {
+        return downloadAndValidateFile(onServerPath, destinationPath, false);
+    }
+
+    /**
+     * Télécharge un fichier signé comme {@link #downloadAndValidateFile(String, String)}, en tentant d'abord
+     * une mise à jour différentielle de l'ancienne copie si une carte de blocs est publiée ({@link DeltaSync}).
+     * Si le fichier reconstruit n'est pas correctement signé, il est retéléchargé en entier.
+     * @param onServerPath URL du fichier à télécharger
+     * @param destinationPath Chemin de destination (fichier ou répertoire)
+     * @param delta Tenter une mise à jour différentielle (gros fichiers : mods, launcher)
+     * @return Le fichier téléchargé et validé, ou null en cas d'erreur ou de validation échouée
+     */
+    public static SignedFile downloadAndValidateFile(String onServerPath, String destinationPath, boolean delta) {
 
         // Chemin du fichier et de sa signature sur le serveur
         String fileOnServerPath = AppProperties.REPO_SERVER_URL + onServerPath;
         String signOnServerPath = AppProperties.SIGNATURE_LOCATION_ON_SERVER + onServerPath + AppProperties.SIGNATURE_FILE_EXTENSION;
 
-        // Télécharger le fichier principal
-        File file = downloadFile(fileOnServerPath, destinationPath);
-        if (file == null || !file.exists()) {
+        // Emplacement local du fichier de signature
+        String localSignPath = AppProperties.SIGNATURE_DIR.getPath() + File.separator + onServerPath + AppProperties.SIGNATURE_FILE_EXTENSION;
+
+        // Destination inconnue (répertoire) : pas de cache possible
+        if (Files.isDirectory(Paths.get(destinationPath))) {
+            File file = downloadFile(fileOnServerPath, destinationPath);
+            if (file == null || !file.exists()) {
+                Logger.error("Erreur lors du téléchargement du fichier...");
+                return null;
+            }
+            File signatureFile = downloadFile(signOnServerPath, localSignPath);
+            if (signatureFile == null || !signatureFile.exists()) {
+                Logger.error("Erreur lors du téléchargement du fichier de signature...");
+                deleteFileIfExists(file);
+                return null;
+            }
+            return validate(new SignedFile(file, signatureFile));
+        }
+
+        // Fichier couvert par le manifeste signé du serveur : contrôle par hachage, sans signature individuelle
+        PackFile.Entry entry = ServerManifest.get(onServerPath);
+        if (entry != null) return downloadFromManifest(fileOnServerPath, destinationPath, entry, delta);
+
+        // Ancienne copie présente : seuls les blocs modifiés sont téléchargés, la signature est revérifiée plus bas
+        boolean rebuilt = false;
+        if (delta) {
+            HttpHeaders headers = DeltaSync.update(fileOnServerPath, Paths.get(destinationPath));
+            if (headers != null) {
+                rebuilt = true;
+                try {
+                    saveValidators(Paths.get(destinationPath), headers);
+                } catch (IOException e) {
+                    Logger.error("Impossible d'enregistrer les validateurs de " + destinationPath + " : " + e.getMessage());
+                }
+            }
+        }
+
+        // Télécharger le fichier principal et sa signature, seulement s'ils ont changé
+        CachedFile file = downloadIfModified(fileOnServerPath, destinationPath);
+        if (file == null || !file.file().exists()) {
             Logger.error("Erreur lors du téléchargement du fichier...");
             return null;
         }
+        CachedFile signature = downloadIfModified(signOnServerPath, localSignPath);
+        if (signature == null || !signature.file().exists()) {
+            Logger.error("Erreur lors du téléchargement du fichier de signature...");
+            deleteFileIfExists(file.file());
+            return null;
+        }
 
-        // Emplacement local du fichier de signature
-        String localSignPath = AppProperties.SIGNATURE_DIR.getPath() + File.separator + onServerPath + AppProperties.SIGNATURE_FILE_EXTENSION;
+        SignedFile signedFile = new SignedFile(file.file(), signature.file());
 
-        // Télécharger le fichier de signature
-        File signatureFile = downloadFile(signOnServerPath, localSignPath);
-        if (signatureFile == null || !signatureFile.exists()) {
-            Logger.error("Erreur lors du téléchargement du fichier de signature...");
+        if (validate(signedFile) == null) {
+            if (!rebuilt) return null;
+            Logger.error("Mise à jour différentielle invalide, téléchargement complet de " + onServerPath);
+            return downloadAndValidateFile(onServerPath, destinationPath, false);
+        }
+        return signedFile;
+    }
+
+    /**
+     * Synchronise un répertoire signé par un arbre de Merkle ({@link MerkleTree}) : l'arbre et sa signature
+     * sont demandés de façon conditionnelle et vérifiés une fois, le répertoire local est comparé à l'arbre,
+     * puis seuls les fichiers qui diffèrent sont planifiés, chacun vérifié par le SHA-512 de sa feuille.
+     * Les fichiers locaux absents de l'arbre sont conservés.
+     * @param onServerPath Chemin du répertoire sur le serveur (ex. {@code modpack/config})
+     * @param destinationPath Répertoire local
+     * @param batch Lot de téléchargements auquel ajouter les fichiers à récupérer
+     * @return Les chemins relatifs planifiés (vide si le répertoire est conforme), ou null si l'arbre est indisponible ou invalide
+     */
+    public static List<String> queueSignedDirectory(String onServerPath, String destinationPath, DownloadScheduler.Batch batch) {
+
+        String dirPath = onServerPath.endsWith("/") ? onServerPath.substring(0, onServerPath.length() - 1) : onServerPath;
+        String treeOnServerPath = AppProperties.SIGNATURE_LOCATION_ON_SERVER + dirPath + MerkleTree.TREE_EXTENSION;
+        String localTreePath = AppProperties.SIGNATURE_DIR.getPath() + File.separator + dirPath + MerkleTree.TREE_EXTENSION;
+
+        // Arbre signé, une seule signature pour tout le répertoire
+        CachedFile tree = downloadIfModified(treeOnServerPath, localTreePath);
+        CachedFile treeSignature = tree == null ? null : downloadIfModified(
+                treeOnServerPath + AppProperties.SIGNATURE_FILE_EXTENSION, localTreePath + AppProperties.SIGNATURE_FILE_EXTENSION);
+        if (tree == null || treeSignature == null) {
+            Logger.error("Arbre signé du répertoire " + dirPath + " indisponible.");
+            return null;
+        }
+        if (validate(new SignedFile(tree.file(), treeSignature.file())) == null) return null;
+        MerkleTree.Node expected = MerkleTree.load(tree.file());
+        if (expected == null) return null;
+
+        // Seuls les sous-arbres qui diffèrent sont parcourus, seuls leurs fichiers sont récupérés
+        Path root = Paths.get(destinationPath).toAbsolutePath().normalize();
+        Map<String, MerkleTree.Node> toFetch;
+        try {
+            Files.createDirectories(root);
+            toFetch = MerkleTree.filesToFetch(expected, MerkleTree.diff(expected, root));
+        } catch (IOException e) {
+            Logger.error("Erreur lors de la comparaison du répertoire " + root + " : " + e.getMessage());
+            return null;
+        }
+
+        List<String> queued = new ArrayList<>();
+        for (Map.Entry<String, MerkleTree.Node> entry : toFetch.entrySet()) {
+            Path destination = root.resolve(entry.getKey()).normalize();
+            if (!destination.startsWith(root)) {
+                Logger.error("Chemin hors du répertoire dans l'arbre signé, ignoré : " + entry.getKey());
+                continue;
+            }
+            String url = AppProperties.REPO_SERVER_URL + dirPath + "/" + entry.getKey();
+            MerkleTree.Node leaf = entry.getValue();
+            batch.submit(entry.getKey(), () -> downloadFileAndVerifySha(url, destination.toString(), leaf.hash(), SHA512, leaf.size()));
+            queued.add(entry.getKey());
         }
+        Logger.log(Logger.BLUE + "Répertoire " + dirPath + " : " + queued.size() + " fichier(s) à récupérer.");
+        return queued;
+    }
 
-        SignedFile signedFile = new SignedFile(file, signatureFile);
+    /**
+     * Télécharge un fichier couvert par le manifeste signé du serveur et le vérifie par son SHA-512.
+     * Une copie locale déjà conforme au manifeste n'entraîne aucune requête.
+     * @param url URL du fichier
+     * @param destinationPath Chemin de destination (fichier)
+     * @param entry Entrée du fichier dans le manifeste
+     * @param delta Tenter une mise à jour différentielle de l'ancienne copie
+     * @return Le fichier vérifié (sans signature individuelle), ou null en cas d'échec
+     */
+    private static SignedFile downloadFromManifest(String url, String destinationPath, PackFile.Entry entry, boolean delta) {
+        File local = new File(destinationPath);
+        if (ServerManifest.verify(entry, local)) return new SignedFile(local, null);
 
+        // Reconstruction à partir de l'ancienne copie, validée par le hachage du manifeste
+        if (delta && DeltaSync.update(url, local.toPath()) != null && ServerManifest.verify(entry, local)) {
+            return new SignedFile(local, null);
+        }
+
+        File file = downloadFileAndVerifySha(url, destinationPath, entry.sha512(), SHA512, entry.size());
+        return file == null ? null : new SignedFile(file, null);
+    }
+
+    /**
+     * Valide la signature d'un fichier téléchargé, et le supprime si elle n'est pas valide.
+     * @return Le fichier signé, ou null si la validation échoue
+     */
+    private static SignedFile validate(SignedFile signedFile) {
         if (!signedFile.valid()) {
             Logger.error("Le fichier téléchargé n'est pas signé avec une clé publique de confiance.");
             signedFile.delete();
@@ -195,83 +576,333 @@ public final class FileManager {
     public static String calculSHA(File file, String shaType) {
 
         try {
-            MessageDigest digest = MessageDigest.getInstance(shaType);
+            return Hasher.hash(file.toPath(), shaType);
+        } catch (IOException e) {
+            Logger.error("Erreur de lecture du fichier pour le calcul " + shaType + " : " + e.getMessage());
+            return null;
+        } catch (IllegalArgumentException e) {
+            Logger.fatal(e.getMessage());
+            return null;
+        }
+    }
 
-            try (InputStream fis = new FileInputStream(file);
-                 BufferedInputStream bis = new BufferedInputStream(fis)) {
+    /**
+     * Télécharge un fichier depuis une URL et vérifie son hachage pendant le téléchargement.
+     * Le fichier n'est écrit à sa destination que si le hachage correspond.
+     * Un fichier déjà présent dans le magasin adressé par contenu ({@link BlobStore}) n'est pas retéléchargé,
+     * et tout fichier téléchargé y est rangé.
+     *
+     * @param url URL du fichier à télécharger
+     * @param destinationPath Chemin local où enregistrer le fichier
+     * @param expectedSha Hachage attendu pour le fichier
+     * @param shaType Algorithme de hachage (SHA-1, SHA-256, SHA-512)
+     * @return Le fichier téléchargé et vérifié, ou null en cas d'échec
+     */
+    public static File downloadFileAndVerifySha(String url, String destinationPath, String expectedSha, String shaType) {
+        return downloadFileAndVerifySha(url, destinationPath, expectedSha, shaType, -1);
+    }
 
-                byte[] buffer = new byte[8192];
-                int bytesRead;
+    /**
+     * Télécharge un fichier depuis une URL et vérifie son hachage pendant le téléchargement.
+     * La taille annoncée (manifestes Mojang, Modrinth) permet de détecter un corps tronqué :
+     * les octets reçus sont alors conservés pour reprise au lieu d'être rejetés par le hachage.
+     *
+     * @param url URL du fichier à télécharger
+     * @param destinationPath Chemin local où enregistrer le fichier
+     * @param expectedSha Hachage attendu pour le fichier
+     * @param shaType Algorithme de hachage (SHA-1, SHA-256, SHA-512)
+     * @param expectedSize Taille attendue du fichier (-1 si inconnue)
+     * @return Le fichier téléchargé et vérifié, ou null en cas d'échec
+     */
+    public static File downloadFileAndVerifySha(String url, String destinationPath, String expectedSha, String shaType, long expectedSize) {
+        if (expectedSha == null || shaType == null) {
+            Logger.error("Hachage attendu manquant pour " + url);
+            return null;
+        }
+        String sha = expectedSha.toLowerCase();
+
+        // Destination inconnue (répertoire) : le magasin ne peut pas être utilisé
+        Path destination = Paths.get(destinationPath);
+        if (Files.isDirectory(destination)) return download(url, destinationPath, sha, shaType, expectedSize);
+
+        // Un téléchargement concurrent du même fichier se termine d'abord, puis le magasin fournit sa copie
+        synchronized (lockFor(destination)) {
+            File stored = BlobStore.materialize(sha, shaType, destination);
+            if (stored != null) {
+                VerificationIndex.record(stored, sha, shaType);
+                return stored;
+            }
 
-                while ((bytesRead = bis.read(buffer)) != -1) {
-                    digest.update(buffer, 0, bytesRead);
-                }
-            } catch (IOException e) {
-                Logger.error("Erreur de lecture du fichier pour le calcul " + shaType + " : " + e.getMessage());
+            File file = download(url, destinationPath, sha, shaType, expectedSize);
+            if (file != null) {
+                BlobStore.store(file.toPath(), sha, shaType);
+                VerificationIndex.record(file, sha, shaType);
+            }
+            return file;
+        }
+    }
+
+    /**
+     * Télécharge un fichier volumineux, en plusieurs segments parallèles si le serveur accepte
+     * les requêtes Range et que le fichier dépasse {@link AppProperties#SEGMENTED_DOWNLOAD_THRESHOLD}.
+     * Sinon, le téléchargement classique (un seul flux, avec reprise) est utilisé.
+     * En mode segmenté, le hachage est vérifié après réassemblage, avant de valider le fichier.
+     *
+     * @param url URL du fichier à télécharger
+     * @param destinationPath Chemin local du fichier (pas un répertoire)
+     * @param expectedSha Hachage attendu, ou null pour ne pas vérifier
+     * @param shaType Algorithme de hachage, ou null pour ne pas vérifier
+     * @return Le fichier téléchargé (et vérifié), ou null en cas d'échec
+     */
+    public static File downloadLargeFile(String url, String destinationPath, String expectedSha, String shaType) {
+        // Un seul téléchargement (et un seul état .segments.json) à la fois par destination
+        synchronized (lockFor(Paths.get(destinationPath))) {
+            return downloadLargeFileLocked(url, destinationPath, expectedSha, shaType);
+        }
+    }
+
+    /**
+     * Corps de {@link #downloadLargeFile}, appelé sous le verrou de la destination.
+     */
+    private static File downloadLargeFileLocked(String url, String destinationPath, String expectedSha, String shaType) {
+
+        // Fichier déjà présent dans le magasin adressé par contenu
+        boolean verified = expectedSha != null && shaType != null;
+        if (verified) {
+            File stored = BlobStore.materialize(expectedSha, shaType, Paths.get(destinationPath));
+            if (stored != null) return stored;
+        }
+
+        // Les segments sont demandés à l'hôte le mieux classé ; le repli en un seul flux gère ses propres tentatives
+        String proxied = verified ? HttpTransport.proxied(url) : null;
+        String source = proxied != null ? proxied : MirrorSelector.candidates(url).get(0);
+        long size = SegmentedDownloader.probeRangeSupport(source);
+        if (size < AppProperties.SEGMENTED_DOWNLOAD_THRESHOLD) {
+            // Serveur sans plages ou petit fichier : téléchargement en un seul flux
+            if (expectedSha == null || shaType == null) return downloadFile(url, destinationPath);
+            return downloadFileAndVerifySha(url, destinationPath, expectedSha, shaType);
+        }
+
+        Path destination = Paths.get(destinationPath);
+        Path partFile = getPartFile(destination);
+
+        try {
+            Files.createDirectories(destination.getParent());
+            // Le fichier partiel prend le format segmenté : il ne peut plus être repris par un flux unique
+            deletePartValidator(partFile);
+
+            int segmentCount = (int) Math.max(1, Math.min(AppProperties.SEGMENT_COUNT, size / AppProperties.SEGMENTED_DOWNLOAD_THRESHOLD * 2));
+            if (!SegmentedDownloader.download(source, partFile, size, segmentCount)) {
+                Logger.error("Échec du téléchargement segmenté de " + url + " (progression conservée pour reprise)");
                 return null;
             }
 
-            // Convertir le hachage en hexadécimal
-            byte[] hashBytes = digest.digest();
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hashBytes) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
+            // Vérifier le fichier réassemblé avant de le valider
+            if (expectedSha != null && shaType != null) {
+                String calculatedSha = calculSHA(partFile.toFile(), shaType);
+                if (calculatedSha == null || !calculatedSha.equalsIgnoreCase(expectedSha)) {
+                    Files.deleteIfExists(partFile);
+                    Logger.error("Hachage " + shaType + " invalide pour " + url + " (attendu " + expectedSha + ", obtenu " + calculatedSha + ")");
+                    return null;
                 }
-                hexString.append(hex);
             }
 
-            return hexString.toString();
+            moveReplacing(partFile, destination);
+            if (verified) {
+                BlobStore.store(destination, expectedSha.toLowerCase(), shaType);
+                VerificationIndex.record(destination.toFile(), expectedSha, shaType);
+            }
+            Logger.log(Logger.BLUE + "\uD83D\uDCE5 Fichier téléchargé (" + segmentCount + " segments) : " + url + " ➔ " + destination.toAbsolutePath());
+            return destination.toFile();
 
-        } catch (NoSuchAlgorithmException e) {
-            Logger.fatal("Algorithme " + shaType + " non trouvé : " + e.getMessage());
+        } catch (IOException e) {
+            Logger.error("Erreur lors du téléchargement du fichier " + url + " : " + e.getMessage());
             return null;
         }
     }
 
     /**
-     * Télécharge un fichier depuis une URL et vérifie son hachage SHA-1.
-     *
-     * @param url URL du fichier à télécharger
-     * @param destinationPath Chemin local où enregistrer le fichier
-     * @param expectedSha Hachage SHA-1 attendu pour le fichier
-     * @return true si le téléchargement et la vérification réussissent, false sinon
+     * Convertit un tableau d'octets en chaîne hexadécimale (minuscules).
+     * @param bytes Les octets à convertir
+     * @return La représentation hexadécimale
      */
-    public static File downloadFileAndVerifySha(String url, String destinationPath, String expectedSha, String shaType) {
-        File downloadedFile = downloadFile(url, destinationPath);
-        if (downloadedFile == null) {
-            return null; // Échec du téléchargement
+    public static String toHex(byte[] bytes) {
+        return Hasher.toHex(bytes);
+    }
+
+    /**
+     * Écrit le corps d'une réponse dans un fichier partiel, en respectant la limite de débit.
+     * Les données passent par un tampon direct réutilisé (sans copie vers un tableau intermédiaire)
+     * et sont écrites par positions dans un {@link FileChannel}. Le fichier n'est pas préalloué :
+     * sa taille reste celle des octets reçus, même après un arrêt brutal, et la reprise repart du bon octet.
+     * Si la taille finale est connue, un corps plus court est signalé par une exception (octets conservés).
+     * @param body Corps de la réponse (fermé à la fin)
+     * @param partFile Fichier partiel
+     * @param append true pour écrire à la suite des octets déjà présents
+     * @param digest Hachage à mettre à jour au fil de l'écriture, ou null
+     * @param expectedSize Taille finale attendue du fichier (-1 si inconnue)
+     * @throws IOException En cas d'erreur, ou si le corps s'arrête avant la taille attendue
+     */
+    private static void writeBody(InputStream body, Path partFile, boolean append, MessageDigest digest, long expectedSize) throws IOException, InterruptedException {
+        try (ReadableByteChannel in = Channels.newChannel(body);
+             FileChannel out = FileChannel.open(partFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+
+            long position = append ? out.size() : 0;
+            if (!append) out.truncate(0);
+
+            ByteBuffer buffer = ioBuffer();
+            int bytesRead = 0;
+            while (bytesRead != -1) {
+                // Remplit le tampon avant d'écrire : moins d'appels système qu'une écriture par lecture
+                buffer.clear();
+                while (buffer.hasRemaining() && (bytesRead = in.read(buffer)) != -1) {
+                    if (bytesRead > 0) BandwidthLimiter.acquire(bytesRead);
+                }
+                buffer.flip();
+                if (digest != null) {
+                    digest.update(buffer);
+                    buffer.rewind();
+                }
+                while (buffer.hasRemaining()) position += out.write(buffer, position);
+            }
+
+            if (expectedSize >= 0 && position < expectedSize) {
+                throw new EOFException("Corps tronqué : " + position + " octets reçus sur " + expectedSize);
+            }
         }
+    }
+
+    /**
+     * Tampon d'entrées/sorties direct du thread courant, réutilisé d'un fichier à l'autre.
+     * @return Le tampon (à vider avant usage)
+     */
+    static ByteBuffer ioBuffer() {
+        return IO_BUFFER.get();
+    }
+
+    /**
+     * Emplacement des validateurs HTTP d'un fichier en cache.
+     * Ils sont rangés dans le cache du launcher, pour ne pas encombrer le dossier du fichier (mods, etc.).
+     */
+    private static Path getValidatorsFile(Path destination) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(SHA1);
+            String key = toHex(digest.digest(destination.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8)));
+            return AppProperties.VALIDATORS_DIR.toPath().resolve(key + ".json");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Enregistre les validateurs (ETag, Last-Modified) renvoyés par le serveur pour un fichier,
+     * avec sa taille et sa date de modification locales.
+     */
+    private static void saveValidators(Path destination, HttpHeaders headers) throws IOException {
+        String etag = headers.firstValue("ETag").orElse(null);
+        String lastModified = headers.firstValue("Last-Modified").orElse(null);
+        Path validatorsFile = getValidatorsFile(destination);
+        if (etag == null && lastModified == null) {
+            Files.deleteIfExists(validatorsFile);
+            return;
+        }
+
+        JSONObject validators = new JSONObject()
+                .put("path", destination.toAbsolutePath().toString())
+                .put("size", Files.size(destination))
+                .put("mtime", Files.getLastModifiedTime(destination).toMillis());
+        if (etag != null) validators.put("etag", etag);
+        if (lastModified != null) validators.put("last_modified", lastModified);
+        writeValidators(validatorsFile, validators);
+    }
+
+    /**
+     * Lit les validateurs d'un fichier, s'ils correspondent toujours au fichier local
+     * (même taille, même date de modification : vérification peu coûteuse, sans relire le contenu).
+     * @return Les validateurs, ou null si le fichier a changé ou n'a pas de validateurs
+     */
+    private static JSONObject loadValidators(Path destination) {
+        Path validatorsFile = getValidatorsFile(destination);
+        if (!Files.isRegularFile(destination) || !Files.isRegularFile(validatorsFile)) return null;
 
+        JSONObject validators = openJsonFile(validatorsFile.toFile());
         try {
-            String calculatedSha1 = calculSHA(downloadedFile, shaType);
-            if (calculatedSha1 != null && calculatedSha1.equals(expectedSha)) {
-                return downloadedFile; // Vérification réussie
+            if (validators == null
+                    || validators.optLong("size", -1) != Files.size(destination)
+                    || validators.optLong("mtime", -1) != Files.getLastModifiedTime(destination).toMillis()) {
+                Files.deleteIfExists(validatorsFile);
+                return null;
             }
-        } catch (SecurityException e) {
-            Logger.error("Erreur de sécurité lors de la vérification " + shaType + " : " + e.getMessage());
+        } catch (IOException e) {
+            return null;
         }
+        return validators;
+    }
 
-        deleteFileIfExists(downloadedFile);
-        return null;
+    /**
+     * Enregistre le validateur de la version en cours de téléchargement dans un fichier partiel
+     * (ETag fort, sinon Last-Modified), renvoyé dans l'en-tête If-Range à la reprise.
+     */
+    private static void savePartValidator(Path partFile, HttpHeaders headers) throws IOException {
+        // Un ETag faible ne peut pas conditionner une plage
+        String validator = headers.firstValue("ETag").filter(etag -> !etag.startsWith("W/"))
+                .or(() -> headers.firstValue("Last-Modified"))
+                .orElse(null);
+        Path validatorsFile = getValidatorsFile(partFile);
+        if (validator == null) {
+            Files.deleteIfExists(validatorsFile);
+            return;
+        }
+        writeValidators(validatorsFile, new JSONObject()
+                .put("path", partFile.toAbsolutePath().toString())
+                .put("if_range", validator));
+    }
 
+    /**
+     * Lit le validateur de la version reçue dans un fichier partiel.
+     * @return La valeur de l'en-tête If-Range, ou null si la version reçue est inconnue
+     */
+    private static String loadPartValidator(Path partFile) {
+        Path validatorsFile = getValidatorsFile(partFile);
+        if (!Files.isRegularFile(validatorsFile)) return null;
+        JSONObject validators = openJsonFile(validatorsFile.toFile());
+        return validators == null ? null : validators.optString("if_range", null);
+    }
+
+    /**
+     * Supprime le validateur d'un fichier partiel (téléchargement terminé ou abandonné).
+     */
+    private static void deletePartValidator(Path partFile) {
+        try {
+            Files.deleteIfExists(getValidatorsFile(partFile));
+        } catch (IOException e) {
+            Logger.error("Impossible de supprimer le validateur de " + partFile + " : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Écrit les validateurs d'un fichier.
+     */
+    private static void writeValidators(Path validatorsFile, JSONObject validators) throws IOException {
+        Files.createDirectories(validatorsFile.getParent());
+        Files.writeString(validatorsFile, validators.toString(), StandardCharsets.UTF_8);
     }
 
 
 
+
 /**
  * Supprime un fichier ou un répertoire (et son contenu) s'il existe.
  *
  * @param file Fichier ou répertoire à supprimer
  */
 public static void deleteFileIfExists(File file) {
-    if (!file.exists()) {
+    if (!Files.exists(file.toPath(), LinkOption.NOFOLLOW_LINKS)) {
         return;
     }
 
-    // Si c'est un répertoire, supprimer son contenu récursivement
-    if (file.isDirectory()) {
+    // Si c'est un répertoire, supprimer son contenu récursivement (sans suivre les liens symboliques)
+    if (file.isDirectory() && !Files.isSymbolicLink(file.toPath())) {
         File[] contents = file.listFiles();
         if (contents != null) {
             for (File f : contents) {
@@ -288,105 +919,152 @@ public static void deleteFileIfExists(File file) {
 
     /**
      * Décompresse un fichier ZIP (ou JAR) dans le dossier de destination.
+     * Les entrées sont décompressées en parallèle ({@link ZipExtractor}).
      *
      * @param zipFile  fichier .zip/.jar à extraire
      * @param destDir  répertoire de destination
+     * @return true si toutes les entrées ont été extraites
      */
-    public static void unzip(File zipFile, File destDir) {
-
-        // Crée le répertoire de destination s'il n'existe pas
-        createDirectoriesIfNotExist(destDir.getPath());
-
-
-        try (ZipInputStream zis = new ZipInputStream(new FileInputStream(zipFile))) {
-            ZipEntry entry;
-            byte[] buffer = new byte[8192];
-
-            while ((entry = zis.getNextEntry()) != null) {
-                Path newFilePath = destDir.toPath().resolve(entry.getName()).normalize();
+    public static boolean unzip(File zipFile, File destDir) {
+        return unzip(List.of(zipFile), destDir);
+    }
 
-                // ⚠️ Sécurité : empêcher les chemins malicieux (ZIP Slip)
-                if (!newFilePath.startsWith(destDir.toPath())) {
-                    zis.closeEntry();
-                    Logger.error("Entrée ZIP malicieuse détectée : " + entry.getName() + " - extraction ignorée.");
-                    continue;
-                }
+    /**
+     * Décompresse plusieurs fichiers ZIP (ou JAR) dans un même dossier, en parallèle.
+     * Si plusieurs archives contiennent le même fichier, la dernière de la liste l'emporte.
+     *
+     * @param zipFiles fichiers .zip/.jar à extraire, dans l'ordre
+     * @param destDir  répertoire de destination
+     * @return true si toutes les entrées ont été extraites
+     */
+    public static boolean unzip(List<File> zipFiles, File destDir) {
+        return ZipExtractor.extract(zipFiles, destDir.toPath());
+    }
 
-                if (entry.isDirectory()) {
-                    createDirectoriesIfNotExist(newFilePath.toString());
-                } else {
-                    createDirectoriesIfNotExist(newFilePath.getParent().toString());
-                    try (OutputStream fos = Files.newOutputStream(newFilePath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
-                        int len;
-                        while ((len = zis.read(buffer)) > 0) {
-                            fos.write(buffer, 0, len);
-                        }
-                    }
-                }
-                zis.closeEntry();
-            }
-        } catch (FileNotFoundException e) {
-            Logger.error("Fichier ZIP non trouvé : " + e.getMessage());
+    /**
+     * Décompresse un fichier TAR.GZ dans le dossier de destination, sans outil système.
+     *
+     * @param tarGzFile fichier .tar.gz à extraire
+     * @param destDir   répertoire de destination
+     * @return true si l'archive a été entièrement extraite
+     */
+    public static boolean untarGz(File tarGzFile, File destDir) {
+        try (InputStream in = Files.newInputStream(tarGzFile.toPath())) {
+            TarGzExtractor.extract(in, destDir.toPath());
+            return true;
         } catch (IOException e) {
-            Logger.error("Erreur lors de la décompression du fichier ZIP : " + e.getMessage());
+            Logger.error("Erreur lors de la décompression du fichier TAR.GZ : " + e.getMessage());
+            return false;
         }
-
-
     }
 
     /**
-     * Décompresse un fichier TAR.GZ dans le dossier de destination en utilisant les outils système.
+     * Télécharge une archive TAR.GZ et l'extrait au fil de sa réception : l'extraction se termine
+     * avec le dernier octet reçu. Le contenu est extrait dans un répertoire intermédiaire, et n'est
+     * déplacé dans la destination qu'une fois le hachage de l'archive vérifié.
+     * L'archive est aussi écrite sur le disque ({@code .part}), sans passer par le magasin adressé par contenu :
+     * elle n'est utile que le temps de l'extraction. Après une interruption, l'appel suivant reprend le {@code .part} (requête Range
+     * conditionnée par If-Range) : le début de l'archive est relu depuis le disque, pour le hachage et
+     * l'extraction, puis la suite est demandée au serveur. Un {@code .part} d'une autre origine
+     * (téléchargement segmenté) est laissé à {@link #downloadLargeFile}.
      *
-     * @param tarGzFile fichier .tar.gz à extraire
-     * @param destDir   répertoire de destination
+     * @param url URL de l'archive
+     * @param archivePath Chemin local de l'archive
+     * @param destDir Répertoire de destination
+     * @param expectedSha Hachage attendu de l'archive
+     * @param shaType Algorithme de hachage
+     * @return true si l'archive a été téléchargée, vérifiée et extraite
      */
-    public static void untarGz(File tarGzFile, File destDir) {
+    public static boolean downloadAndUntarGz(String url, String archivePath, File destDir, String expectedSha, String shaType) {
 
-        // Crée le répertoire de destination s'il n'existe pas
-        createDirectoriesIfNotExist(destDir.getPath());
+        Path archive = Paths.get(archivePath);
+        String proxied = HttpTransport.proxied(url);
+        String source = proxied != null ? proxied : MirrorSelector.candidates(url).get(0);
+        Path partFile = getPartFile(archive);
+        Path staging = null;
 
         try {
-            ProcessBuilder processBuilder;
-
-            if (AppProperties.getOsType().equals("Windows")) {
-                // Windows : utiliser tar.exe (disponible depuis Windows 10)
-                processBuilder = new ProcessBuilder(
-                    "tar", "-xzf",
-                    tarGzFile.getAbsolutePath(),
-                    "-C", destDir.getAbsolutePath()
-                );
-            } else {
-                // Linux/macOS : utiliser tar
-                processBuilder = new ProcessBuilder(
-                    "tar", "-xzf",
-                    tarGzFile.getAbsolutePath(),
-                    "-C", destDir.getAbsolutePath()
-                );
-            }
-
-            processBuilder.redirectErrorStream(true);
-            Process process = processBuilder.start();
-
-            // Lire la sortie du processus
-            try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(process.getInputStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    Logger.log(line);
-                }
+            // Fichier partiel d'un flux précédent : reprise conditionnée par la version déjà reçue
+            long resumeFrom = 0;
+            String ifRange = null;
+            if (Files.isRegularFile(partFile)) {
+                ifRange = loadPartValidator(partFile);
+                if (ifRange == null) return false; // Format segmenté ou version inconnue : reprise par downloadLargeFile
+                resumeFrom = Files.size(partFile);
             }
 
-            int exitCode = process.waitFor();
+            HttpRequest.Builder builder = HttpTransport.request(source).GET();
+            if (resumeFrom > 0) builder.header("Range", "bytes=" + resumeFrom + "-").header("If-Range", ifRange);
+            HttpResponse<InputStream> response = HttpTransport.openStream(builder.build());
 
-            if (exitCode != 0) {
-                Logger.error("Échec de la décompression TAR.GZ (code: " + exitCode + ")");
+            // Plage refusée : le fichier partiel est obsolète, on repart de zéro
+            if (resumeFrom > 0 && response.statusCode() == HTTP_RANGE_NOT_SATISFIABLE) {
+                response.body().close();
+                Files.deleteIfExists(partFile);
+                deletePartValidator(partFile);
+                return downloadAndUntarGz(url, archivePath, destDir, expectedSha, shaType);
             }
 
-        } catch (IOException e) {
-            Logger.error("Erreur lors de la décompression du fichier TAR.GZ : " + e.getMessage());
+            boolean resumed = resumeFrom > 0
+                    && response.statusCode() == HttpURLConnection.HTTP_PARTIAL
+                    && response.headers().firstValue("Content-Range").orElse("").startsWith("bytes " + resumeFrom + "-");
+            if (!resumed && response.statusCode() != HttpURLConnection.HTTP_OK) {
+                response.body().close();
+                Logger.error("Téléchargement de " + url + " refusé (" + response.statusCode() + ")");
+                return false;
+            }
+
+            Files.createDirectories(archive.getParent());
+            Files.createDirectories(destDir.toPath());
+            if (!resumed) {
+                Files.deleteIfExists(partFile);
+                savePartValidator(partFile, response.headers());
+            }
+            staging = Files.createTempDirectory(destDir.toPath(), ".extract-");
+            MessageDigest digest = MessageDigest.getInstance(shaType);
+
+            // Un seul passage : début de l'archive relu depuis le disque, puis la suite reçue,
+            // ajoutée au fichier partiel ; le tout est haché et extrait au fil de l'eau
+            try (InputStream body = response.body();
+                 InputStream prefix = resumed ? Files.newInputStream(partFile) : InputStream.nullInputStream();
+                 OutputStream archiveOut = new BufferedOutputStream(Files.newOutputStream(partFile,
+                         StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND))) {
+                InputStream received = new TeeInputStream(BandwidthLimiter.limit(body), archiveOut);
+                InputStream in = new DigestInputStream(new SequenceInputStream(prefix, received), digest);
+                if (resumed) Logger.log("Reprise de " + url + " à partir de l'octet " + resumeFrom);
+                TarGzExtractor.extract(in, staging);
+                in.transferTo(OutputStream.nullOutputStream()); // Fin du flux GZIP, pour le hachage
+            }
+
+            String calculatedSha = toHex(digest.digest());
+            if (!calculatedSha.equalsIgnoreCase(expectedSha)) {
+                Files.deleteIfExists(partFile);
+                deletePartValidator(partFile);
+                Logger.error("Hachage " + shaType + " invalide pour " + url + " (attendu " + expectedSha + ", obtenu " + calculatedSha + ")");
+                return false;
+            }
+
+            // Archive vérifiée : le contenu extrait remplace l'ancien
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(staging)) {
+                for (Path child : children) {
+                    Path target = destDir.toPath().resolve(child.getFileName());
+                    deleteFileIfExists(target.toFile());
+                    Files.move(child, target);
+                }
+            }
+            moveReplacing(partFile, archive);
+            deletePartValidator(partFile);
+            Logger.log(Logger.BLUE + "\uD83D\uDCE5 Archive téléchargée et extraite : " + url + " ➔ " + destDir.getAbsolutePath());
+            return true;
+
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            Logger.error("Décompression TAR.GZ interrompue : " + e.getMessage());
+            return false;
+        } catch (IOException | NoSuchAlgorithmException e) {
+            Logger.error("Erreur lors du téléchargement et de l'extraction de " + url + " : " + e.getMessage());
+            return false;
+        } finally {
+            if (staging != null) deleteFileIfExists(staging.toFile());
         }
     }
 
@@ -435,17 +1113,64 @@ public static void deleteFileIfExists(File file) {
     }
 
 
-    public static boolean pingServer(String urlString) {
+    /**
+     * Donne le chemin du fichier partiel utilisé pendant le téléchargement d'un fichier.
+     * @param destination Chemin final du fichier
+     * @return Le chemin du fichier {@code .part} associé
+     */
+    public static Path getPartFile(Path destination) {
+        return destination.resolveSibling(destination.getFileName() + PART_FILE_EXTENSION);
+    }
+
+    /**
+     * Verrou associé à un fichier de destination.
+     * @param destination Chemin final du fichier
+     * @return Le verrou, toujours le même pour un même fichier
+     */
+    private static Object lockFor(Path destination) {
+        return DESTINATION_LOCKS.computeIfAbsent(destination.toAbsolutePath().normalize(), path -> new Object());
+    }
+
+    /**
+     * Déplace un fichier en remplaçant la destination, de façon atomique si le système de fichiers le permet.
+     */
+    private static void moveReplacing(Path source, Path target) throws IOException {
         try {
-            URL url = new URL(urlString);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("HEAD");
-            connection.setConnectTimeout(5000); // 5 secondes
-            connection.setReadTimeout(5000);    // 5 secondes
-            int responseCode = connection.getResponseCode();
-            return (200 <= responseCode && responseCode <= 399);
-        } catch (IOException e) {
-            return false;
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public static boolean pingServer(String urlString) {
+        int responseCode = HttpTransport.head(urlString);
+        return (200 <= responseCode && responseCode <= 399);
+    }
+
+    /**
+     * Flux qui recopie tout ce qui est lu dans un flux de sortie.
+     */
+    private static final class TeeInputStream extends FilterInputStream {
+
+        private final OutputStream copy;
+
+        private TeeInputStream(InputStream in, OutputStream copy) {
+            super(in);
+            this.copy = copy;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) copy.write(b);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int bytesRead = super.read(buffer, offset, length);
+            if (bytesRead > 0) copy.write(buffer, offset, bytesRead);
+            return bytesRead;
         }
     }
 
@@ -0,0 +1,173 @@
+package com.amynna.Tools;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Calcul des hachages de fichiers.
+ * <ul>
+ *     <li>les {@link MessageDigest} sont réutilisés d'un fichier à l'autre (un par algorithme et par thread) ;</li>
+ *     <li>les gros fichiers sont lus par projection en mémoire, les petits par le tampon direct du thread ;</li>
+ *     <li>plusieurs algorithmes peuvent être calculés en une seule lecture du fichier ;</li>
+ *     <li>la conversion hexadécimale passe par une table, sans chaîne intermédiaire par octet.</li>
+ * </ul>
+ */
+public final class Hasher {
+
+    // ---- [ ATTRIBUTS ] ----
+
+    /** Taille à partir de laquelle un fichier est projeté en mémoire plutôt que lu. */
+    private static final long MMAP_THRESHOLD = 4L * 1024 * 1024;
+
+    /** Taille de chaque fenêtre de projection. */
+    private static final long MMAP_WINDOW = 64L * 1024 * 1024;
+
+    /**
+     * Projection en mémoire activée (-Doriginrp.hashMmap).
+     * Désactivée par défaut sous Windows : une projection verrouille le fichier jusqu'au passage du ramasse-miettes,
+     * ce qui empêcherait de remplacer un fichier corrompu juste après sa vérification.
+     */
+    private static final boolean USE_MMAP = Boolean.parseBoolean(System.getProperty("originrp.hashMmap",
+            String.valueOf(!System.getProperty("os.name", "").toLowerCase().startsWith("windows"))));
+
+    /** Chiffres hexadécimaux (minuscules). */
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /** Digests réutilisables du thread courant, par algorithme. */
+    private static final ThreadLocal<Map<String, MessageDigest>> DIGESTS = ThreadLocal.withInitial(HashMap::new);
+
+    private Hasher() {
+        // Constructeur privé pour empêcher l'instanciation
+        Logger.fatal("Hasher ne peut pas être instancié.");
+    }
+
+    // ---- [ MÉTHODES PUBLIQUES ] ----
+
+    /**
+     * Calcule le hachage d'un fichier.
+     * @param file Fichier à hacher
+     * @param algorithm Algorithme de hachage (SHA-1, SHA-256, SHA-512)
+     * @return Le hachage, en hexadécimal
+     * @throws IOException En cas d'erreur de lecture
+     */
+    public static String hash(Path file, String algorithm) throws IOException {
+        return hash(file, new String[] { algorithm }).get(algorithm);
+    }
+
+    /**
+     * Calcule plusieurs hachages d'un fichier en une seule lecture.
+     * @param file Fichier à hacher
+     * @param algorithms Algorithmes de hachage
+     * @return Les hachages en hexadécimal, par algorithme (dans l'ordre demandé)
+     * @throws IOException En cas d'erreur de lecture
+     */
+    public static Map<String, String> hash(Path file, String... algorithms) throws IOException {
+        Set<String> names = new LinkedHashSet<>(List.of(algorithms));
+        MessageDigest[] digests = new MessageDigest[names.size()];
+        int i = 0;
+        for (String name : names) digests[i++] = pooledDigest(name);
+
+        try {
+            update(file, digests);
+        } catch (IOException e) {
+            for (MessageDigest digest : digests) digest.reset();
+            throw e;
+        }
+
+        Map<String, String> hashes = new LinkedHashMap<>();
+        i = 0;
+        for (String name : names) hashes.put(name, toHex(digests[i++].digest()));
+        return hashes;
+    }
+
+    /**
+     * Ajoute le contenu d'un fichier à des calculs de hachage en cours (une seule lecture pour tous).
+     * @param file Fichier à lire
+     * @param digests Digests à alimenter
+     * @throws IOException En cas d'erreur de lecture
+     */
+    public static void update(Path file, MessageDigest... digests) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            if (USE_MMAP && size >= MMAP_THRESHOLD) {
+                for (long position = 0; position < size; position += MMAP_WINDOW) {
+                    MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MMAP_WINDOW, size - position));
+                    for (MessageDigest digest : digests) digest.update(window.duplicate());
+                }
+                return;
+            }
+
+            ByteBuffer buffer = FileManager.ioBuffer();
+            buffer.clear();
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                for (MessageDigest digest : digests) {
+                    digest.update(buffer);
+                    buffer.rewind();
+                }
+                buffer.clear();
+            }
+        }
+    }
+
+    /**
+     * Convertit des octets en hexadécimal (minuscules).
+     * @param bytes Octets à convertir
+     * @return La représentation hexadécimale
+     */
+    public static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+            chars[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Convertit une chaîne hexadécimale (minuscules ou majuscules) en octets.
+     * @param hex Chaîne hexadécimale
+     * @return Les octets, ou null si la chaîne n'est pas hexadécimale
+     */
+    public static byte[] fromHex(String hex) {
+        if (hex == null || hex.length() % 2 != 0) return null;
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int high = Character.digit(hex.charAt(2 * i), 16);
+            int low = Character.digit(hex.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0) return null;
+            bytes[i] = (byte) ((high << 4) | low);
+        }
+        return bytes;
+    }
+
+    // ---- [ MÉTHODES PRIVÉES ] ----
+
+    /**
+     * Digest réutilisable du thread courant.
+     * Il ne doit servir qu'à un calcul entièrement effectué dans un même appel de cette classe.
+     */
+    private static MessageDigest pooledDigest(String algorithm) {
+        return DIGESTS.get().computeIfAbsent(algorithm, name -> {
+            try {
+                return MessageDigest.getInstance(name);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalArgumentException("Algorithme " + name + " non trouvé", e);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,262 @@
+package com.amynna.Tools;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Couche de transport HTTP partagée par tout le launcher.
+ * Un unique {@link HttpClient} garde les connexions ouvertes (keep-alive) et les réutilise
+ * entre les requêtes, et négocie HTTP/2 (multiplexage) lorsque l'hôte le supporte.
+ * Les corps de réponse sont surveillés : une lecture qui ne reçoit plus aucun octet pendant
+ * {@link AppProperties#HTTP_IDLE_TIMEOUT} secondes est interrompue (le flux est fermé).
+ */
+public final class HttpTransport {
+
+    // ---- [ ATTRIBUTS ] ----
+
+    /** User-Agent envoyé avec chaque requête. */
+    public static final String USER_AGENT = AppProperties.APP_NAME + "-Launcher/" + AppProperties.APP_VERSION;
+
+    /** Propriété système donnant l'adresse du proxy de cache (ex. {@code http://192.168.1.10:8765/}). */
+    public static final String PROXY_PROPERTY = "originrp.proxy";
+
+    /** Client HTTP partagé (pool de connexions, HTTP/2 si possible). */
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofSeconds(AppProperties.HTTP_CONNECT_TIMEOUT))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    /** Surveillance des lectures de corps de réponse bloquées (un seul thread démon). */
+    private static final ScheduledThreadPoolExecutor WATCHDOG = createWatchdog();
+
+    /** Corps de réponse en flux, surveillé par {@link #WATCHDOG}. */
+    private static final HttpResponse.BodyHandler<InputStream> WATCHED_STREAM = info ->
+            HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofInputStream(), IdleTimeoutInputStream::new);
+
+    /** Adresse du proxy de cache du site (-Doriginrp.proxy), ou null pour accéder directement aux origines. */
+    private static volatile String proxyUrl = normalizeProxyUrl(System.getProperty(PROXY_PROPERTY));
+
+    private HttpTransport() {
+        // Constructeur privé pour empêcher l'instanciation
+        Logger.fatal("HttpTransport ne peut pas être instancié.");
+    }
+
+    // ---- [ MÉTHODES PUBLIQUES ] ----
+
+    /**
+     * Prépare une requête vers l'URL donnée avec les en-têtes et le délai d'attente par défaut.
+     * Le délai couvre l'attente de la réponse (en-têtes), pas la lecture complète du corps.
+     * @param url URL de la requête
+     * @return Le constructeur de requête, à compléter par l'appelant
+     */
+    public static HttpRequest.Builder request(String url) {
+        return HttpRequest.newBuilder()
+                .uri(toUri(url))
+                .timeout(Duration.ofSeconds(AppProperties.HTTP_READ_TIMEOUT))
+                .header("User-Agent", USER_AGENT);
+    }
+
+    /**
+     * Envoie une requête et retourne le corps de la réponse sous forme de flux.
+     * Une lecture du flux qui ne reçoit aucun octet pendant {@link AppProperties#HTTP_IDLE_TIMEOUT} secondes
+     * échoue ({@link HttpTimeoutException}) au lieu de bloquer indéfiniment.
+     * L'appelant doit fermer le flux pour rendre la connexion au pool.
+     * @param request La requête à envoyer
+     * @return La réponse HTTP
+     * @throws IOException En cas d'erreur réseau
+     * @throws InterruptedException Si le thread est interrompu
+     */
+    public static HttpResponse<InputStream> openStream(HttpRequest request) throws IOException, InterruptedException {
+        return CLIENT.send(request, WATCHED_STREAM);
+    }
+
+    /**
+     * Effectue une requête GET et retourne le corps de la réponse sous forme de texte.
+     * @param url URL de la requête
+     * @param accept Valeur de l'en-tête Accept
+     * @return Le corps de la réponse, ou null si le statut n'est pas 200 ou en cas d'erreur
+     */
+    public static String getString(String url, String accept) {
+        HttpRequest request = request(url)
+                .header("Accept", accept)
+                .GET()
+                .build();
+
+        try {
+            HttpResponse<InputStream> response = openStream(request);
+            try (InputStream body = response.body()) {
+                if (response.statusCode() != HttpURLConnection.HTTP_OK) {
+                    Logger.error("Requête HTTP refusée (" + response.statusCode() + ") : " + url);
+                    return null;
+                }
+                return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (IOException e) {
+            Logger.error("Erreur lors de la requête " + url + " : " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Effectue une requête HEAD et retourne le code de statut.
+     * @param url URL de la requête
+     * @return Le code de statut HTTP, ou -1 en cas d'erreur
+     */
+    public static int head(String url) {
+        HttpRequest request = request(url)
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .build();
+
+        try {
+            return CLIENT.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (IOException | IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Définit le proxy de cache du site.
+     * @param url Adresse du proxy (ex. {@code http://192.168.1.10:8765/}), ou null pour le désactiver
+     */
+    public static void setProxy(String url) {
+        proxyUrl = normalizeProxyUrl(url);
+    }
+
+    /**
+     * Retourne l'URL permettant d'obtenir un fichier via le proxy de cache du site.
+     * @param url URL d'origine du fichier
+     * @return L'URL via le proxy, ou null si aucun proxy n'est configuré
+     */
+    public static String proxied(String url) {
+        String proxy = proxyUrl;
+        if (proxy == null) return null;
+        return proxy + CachingProxy.CACHE_ENDPOINT.substring(1) + "?url=" + URLEncoder.encode(url, StandardCharsets.UTF_8);
+    }
+
+    // ---- [ MÉTHODES PRIVÉES ] ----
+
+    /**
+     * Normalise l'adresse du proxy (terminée par « / »), ou null si elle est vide.
+     */
+    private static String normalizeProxyUrl(String url) {
+        if (url == null || url.isBlank()) return null;
+        return url.endsWith("/") ? url : url + "/";
+    }
+
+    /**
+     * Crée le thread de surveillance des lectures (démon : il n'empêche pas l'arrêt du launcher).
+     */
+    private static ScheduledThreadPoolExecutor createWatchdog() {
+        ScheduledThreadPoolExecutor watchdog = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "http-idle-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.setRemoveOnCancelPolicy(true);
+        return watchdog;
+    }
+
+    /**
+     * Corps de réponse fermé dès qu'une lecture reste bloquée trop longtemps sans recevoir d'octet.
+     * Seul le temps passé à attendre le réseau compte : un appelant lent (limite de débit, extraction)
+     * ne provoque pas d'interruption.
+     */
+    private static final class IdleTimeoutInputStream extends FilterInputStream {
+
+        /** Début de la lecture en cours (System.nanoTime), 0 si aucune lecture n'attend. */
+        private volatile long readStart = 0;
+        /** Indique que le flux a été fermé par la surveillance. */
+        private volatile boolean timedOut = false;
+        /** Contrôle périodique de ce flux. */
+        private final ScheduledFuture<?> check;
+
+        private IdleTimeoutInputStream(InputStream in) {
+            super(in);
+            long period = Math.max(1, AppProperties.HTTP_IDLE_TIMEOUT / 4);
+            this.check = WATCHDOG.scheduleWithFixedDelay(this::closeIfIdle, period, period, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public int read() throws IOException {
+            readStart = System.nanoTime();
+            try {
+                int b = super.read();
+                if (b == -1) check.cancel(false);
+                return b;
+            } catch (IOException e) {
+                throw timedOut ? idleTimeout(e) : e;
+            } finally {
+                readStart = 0;
+            }
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            readStart = System.nanoTime();
+            try {
+                int bytesRead = super.read(buffer, offset, length);
+                if (bytesRead == -1) check.cancel(false);
+                return bytesRead;
+            } catch (IOException e) {
+                throw timedOut ? idleTimeout(e) : e;
+            } finally {
+                readStart = 0;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            check.cancel(false);
+            super.close();
+        }
+
+        /**
+         * Ferme le flux si la lecture en cours attend depuis plus de {@link AppProperties#HTTP_IDLE_TIMEOUT} secondes.
+         */
+        private void closeIfIdle() {
+            long start = readStart;
+            if (start == 0 || System.nanoTime() - start < TimeUnit.SECONDS.toNanos(AppProperties.HTTP_IDLE_TIMEOUT)) return;
+            timedOut = true;
+            try {
+                close();
+            } catch (IOException e) {
+                Logger.error("Impossible de fermer une connexion bloquée : " + e.getMessage());
+            }
+        }
+
+        private static IOException idleTimeout(IOException cause) {
+            HttpTimeoutException e = new HttpTimeoutException("Aucune donnée reçue depuis " + AppProperties.HTTP_IDLE_TIMEOUT + " s");
+            e.initCause(cause);
+            return e;
+        }
+    }
+
+    /**
+     * Convertit une URL en URI, en encodant les caractères tolérés par {@code java.net.URL}
+     * mais refusés par {@link URI}.
+     */
+    private static URI toUri(String url) {
+        return URI.create(url.replace('\\', '/').replace(" ", "%20"));
+    }
+
+}
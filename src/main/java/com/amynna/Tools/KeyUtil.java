@@ -1,9 +1,15 @@
 package com.amynna.Tools;
 
+import org.bouncycastle.asn1.ASN1OctetString;
+import org.bouncycastle.asn1.edec.EdECObjectIdentifiers;
+import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
 import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
 import org.bouncycastle.cert.X509v3CertificateBuilder;
 import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
 import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.crypto.params.Ed25519PrivateKeyParameters;
 import org.bouncycastle.operator.ContentSigner;
 import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
 import org.json.JSONArray;
@@ -12,10 +18,17 @@ import org.json.JSONObject;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.cert.Certificate;
 import java.security.*;
+import java.security.spec.EdDSAParameterSpec;
 import java.util.Date;
 import java.security.spec.X509EncodedKeySpec;
 import java.util.*;
@@ -33,11 +46,36 @@ public final class KeyUtil {
      */
     private static final Map<String, PublicKey> TRUSTED_PUBLIC_KEYS = new HashMap<>();
 
+    /**
+     * Chemin sur le serveur du fichier des clés publiques de confiance (signé par la Master Key).
+     */
+    public static final String TRUSTED_KEYS_NAME = "trusted-keys.json";
+
     /**
      * Algorithme de signature utilisé (Ed25519).
      */
     private static final String KEY_ALGORITHM = "Ed25519";
 
+    /**
+     * Mode de signature historique : Ed25519 pur sur le contenu entier du fichier.
+     * Les fichiers .sig correspondants ne contiennent que la signature en Base64.
+     */
+    private static final String LEGACY_SIGNATURE_MODE = "Ed25519";
+
+    /**
+     * Mode de signature actuel : Ed25519ph (RFC 8032), la signature porte sur le SHA-512 du fichier.
+     * Le fichier est lu par blocs, sans jamais être chargé entièrement en mémoire.
+     */
+    private static final String PREHASH_SIGNATURE_MODE = "Ed25519ph";
+
+    /**
+     * Contenu d'un fichier de signature.
+     * @param mode Mode de signature ({@link #LEGACY_SIGNATURE_MODE} ou {@link #PREHASH_SIGNATURE_MODE})
+     * @param keyId Empreinte de la clé qui a signé (voir {@link #getKeyFingerprint(PublicKey)}), ou null si inconnue
+     * @param signature Octets de la signature
+     */
+    private record SignatureData(String mode, String keyId, byte[] signature) {}
+
     /**
      * Type de KeyStore utilisé pour stocker les clés privées.
      */
@@ -65,8 +103,7 @@ public final class KeyUtil {
                 AppProperties.DEFAULT_PUBLIC_KEY_OWNER);
 
         // Télécharger le fichier des clés publiques de confiance
-        final String trustedKeysFileName = "trusted-keys.json";
-        SignedFile trustedKeysFile = FileManager.downloadAndValidateFile(trustedKeysFileName, AppProperties.TEMP_DIR.toPath() + File.separator + trustedKeysFileName);
+        SignedFile trustedKeysFile = FileManager.downloadAndValidateFile(TRUSTED_KEYS_NAME, AppProperties.CACHE_DIR.toPath() + File.separator + TRUSTED_KEYS_NAME);
         if (trustedKeysFile == null) {
             Logger.error("⚠️  Impossible de charger le fichier des clés publiques de confiance.");
             return;
@@ -114,6 +151,11 @@ public final class KeyUtil {
         // Initialiser le gestionnaire de clés si nécessaire
         init();
 
+        // Répertoire signé par un arbre de Merkle : une seule signature, puis comparaison de l'arbre
+        if (signedFile.file().isDirectory() && signedFile.signature().isFile()) {
+            return validateTree(signedFile, space);
+        }
+
         if (signedFile.isDirectory()) {
 
             File[] subFiles = signedFile.file().listFiles();
@@ -134,22 +176,20 @@ public final class KeyUtil {
                 return false;
             }
 
-            SignedFile[] signedSubFiles = new SignedFile[subFiles.length];
-            int index = 0;
-            for (File file : subFiles) {
-                for (File signFile : subSignFiles) {
-                    if (signFile.getName().equals(file.getName() + AppProperties.SIGNATURE_FILE_EXTENSION)) {
-                        signedSubFiles[index] = new SignedFile(file, signFile);
-                        index++;
-                        break;
-                    }
-                }
-            }
+            // Association de chaque fichier à sa signature, par nom
+            Map<String, File> signaturesByName = new HashMap<>();
+            for (File signFile : subSignFiles) signaturesByName.put(signFile.getName(), signFile);
 
             // Vérifier chaque sous-fichier
             boolean valid = true;
-            for (SignedFile sf : signedSubFiles) {
-                boolean subValid = validateSignature(sf, space + "   ");
+            for (File file : subFiles) {
+                File signFile = signaturesByName.get(file.getName() + AppProperties.SIGNATURE_FILE_EXTENSION);
+                if (signFile == null) {
+                    Logger.log(space + "   ❌ Signature manquante pour [" + file.getName() + "]");
+                    valid = false;
+                    continue;
+                }
+                boolean subValid = validateSignature(new SignedFile(file, signFile), space + "   ");
                 if (valid) valid = subValid;
             }
             if (valid) {
@@ -165,18 +205,29 @@ public final class KeyUtil {
 
         }
         else {
-            // Vérifier la signature avec chaque clé publique de confiance
-            for (String iPublicKey : TRUSTED_PUBLIC_KEYS.keySet()) {
-                if (verifyFile(signedFile, TRUSTED_PUBLIC_KEYS.get(iPublicKey))) {
-                    Logger.log(space + "✅ Fichier [" + signedFile.file().getName() +
-                            "] signé par [" + signedFile.signature().getName() +
-                            "] validé avec la clé publique de confiance : " + iPublicKey);
-                    return true;
-                }
+            // Signature déjà vérifiée avec les mêmes clés de confiance, fichier inchangé depuis
+            String trustStore = trustStoreVersion();
+            String signer = SignatureCache.lookup(signedFile, trustStore);
+            if (signer != null && TRUSTED_PUBLIC_KEYS.containsKey(signer)) {
+                Logger.log(space + "✅ Fichier [" + signedFile.file().getName() +
+                        "] signé par [" + signedFile.signature().getName() +
+                        "] déjà validé avec la clé publique de confiance : " + signer);
+                return true;
+            }
+
+            // Vérifier la signature avec toutes les clés publiques de confiance, en une seule lecture du fichier
+            signer = findSigner(signedFile, TRUSTED_PUBLIC_KEYS);
+            if (signer != null) {
+                SignatureCache.record(signedFile, signer, trustStore);
+                Logger.log(space + "✅ Fichier [" + signedFile.file().getName() +
+                        "] signé par [" + signedFile.signature().getName() +
+                        "] validé avec la clé publique de confiance : " + signer);
+                return true;
             }
             Logger.log(space + "❌ Fichier [" + signedFile.file().getName() +
                     "] non signé par [" + signedFile.signature().getName() +
                     "] avec aucune clé publique de confiance.");
+            SignatureCache.forget(signedFile);
             return false;
         }
 
@@ -532,6 +583,30 @@ public final class KeyUtil {
 
     }
 
+    /**
+     * Calcule l'empreinte d'une clé publique : SHA-256 (hexadécimal) de son encodage X.509.
+     * Elle identifie la clé dans les fichiers de signature.
+     * @param publicKey La clé publique.
+     * @return L'empreinte de la clé.
+     */
+    public static String getKeyFingerprint(PublicKey publicKey) {
+        return Hasher.toHex(newDigest(FileManager.SHA256).digest(publicKey.getEncoded()));
+    }
+
+    /**
+     * Calcule l'empreinte de la clé publique associée à une clé privée Ed25519.
+     * @param privateKey La clé privée.
+     * @return L'empreinte de la clé publique correspondante.
+     */
+    public static String getKeyFingerprint(PrivateKey privateKey) throws IOException {
+        // Clé privée PKCS#8 -> graine Ed25519 -> clé publique, encodée comme PublicKey.getEncoded()
+        PrivateKeyInfo info = PrivateKeyInfo.getInstance(privateKey.getEncoded());
+        byte[] seed = ASN1OctetString.getInstance(info.parsePrivateKey()).getOctets();
+        byte[] publicKey = new Ed25519PrivateKeyParameters(seed, 0).generatePublicKey().getEncoded();
+        byte[] encoded = new SubjectPublicKeyInfo(new AlgorithmIdentifier(EdECObjectIdentifiers.id_Ed25519), publicKey).getEncoded();
+        return Hasher.toHex(newDigest(FileManager.SHA256).digest(encoded));
+    }
+
     /**
      * Affiche les informations d'une clé publique.
      * @param alias L'alias de la clé.
@@ -540,6 +615,7 @@ public final class KeyUtil {
     public static void printKeyInfo(String alias, PublicKey publicKey) {
         Logger.log("📌 Alias : " + Logger.BOLD + alias);
         Logger.log("   Clé publique : " + getPublicKeyAsString(publicKey));
+        if (publicKey != null) Logger.log("   Empreinte    : " + getKeyFingerprint(publicKey));
     }
 
     // ---- [ MÉTHODES PRIVÉES ] ----
@@ -620,17 +696,18 @@ public final class KeyUtil {
 
         // Signer le fichier
         try {
-            // Lire le contenu du fichier
-            byte[] data = Files.readAllBytes(file.toPath());
-
-            // Signer les données
-            Signature sig = Signature.getInstance(KEY_ALGORITHM);
+            // Signer le contenu du fichier, lu par blocs (Ed25519ph)
+            Signature sig = newSignature(PREHASH_SIGNATURE_MODE);
             sig.initSign(privateKey);
-            sig.update(data);
+            feed(file.toPath(), sig);
             byte[] sigBytes = sig.sign();
 
-            // Sauvegarder la signature dans un fichier (encodée en Base64)
-            Files.write(signFile.toPath(), Base64.getEncoder().encode(sigBytes));
+            // Sauvegarder la signature dans un fichier (JSON : mode, empreinte de la clé et signature en Base64)
+            JSONObject signature = new JSONObject()
+                    .put("alg", PREHASH_SIGNATURE_MODE)
+                    .put("kid", getKeyFingerprint(privateKey))
+                    .put("sig", Base64.getEncoder().encodeToString(sigBytes));
+            Files.writeString(signFile.toPath(), signature.toString(), StandardCharsets.UTF_8);
 
             Logger.log("Signature générée : " + signFilePath);
             return new SignedFile(file, signFile);
@@ -649,10 +726,14 @@ public final class KeyUtil {
     }
 
     /**
-     * Signe tous les fichiers d'un répertoire avec une clé privée.
+     * Signe un répertoire avec une clé privée. Deux formes de signature sont écrites :
+     * une signature par fichier (répertoire {@code <nom>.sig}, lu par les clients actuels)
+     * et l'arbre de Merkle du répertoire ({@link MerkleTree}), signé une seule fois,
+     * qui permet de ne récupérer que les fichiers modifiés ({@link FileManager#queueSignedDirectory}).
      * @param dir Le répertoire à signer.
-     * @param signDirectoryPath Le chemin où sauvegarder le répertoire de signatures.
+     * @param signDirectoryPath Le chemin où sauvegarder les signatures et l'arbre.
      * @param privateKey La clé privée.
+     * @return Le répertoire associé à son fichier d'arbre signé, ou null en cas d'erreur.
      */
     private static SignedFile signDirectory(File dir, String signDirectoryPath, PrivateKey privateKey) {
 
@@ -662,8 +743,23 @@ public final class KeyUtil {
             return null;
         }
 
+        if (!(signDirectoryPath == null || signDirectoryPath.isEmpty())) FileManager.createDirectoriesIfNotExist(signDirectoryPath);
+        if (signFilesOf(dir, signDirectoryPath, privateKey) == null) return null;
+        return MerkleTree.sign(dir, signDirectoryPath, privateKey);
+    }
+
+    /**
+     * Signe chaque fichier d'un répertoire, récursivement, dans un répertoire de signatures {@code <nom>.sig}.
+     * @param dir Le répertoire à signer.
+     * @param signDirectoryPath Le chemin où créer le répertoire de signatures.
+     * @param privateKey La clé privée.
+     * @return Le répertoire associé à son répertoire de signatures, ou null s'il est vide.
+     */
+    private static SignedFile signFilesOf(File dir, String signDirectoryPath, PrivateKey privateKey) {
+
         // Vérifier le chemin de sauvegarde
-        if (!(signDirectoryPath == null || signDirectoryPath.isEmpty()) && !signDirectoryPath.endsWith("/")) signDirectoryPath += File.separator;
+        if (!(signDirectoryPath == null || signDirectoryPath.isEmpty()) && !signDirectoryPath.endsWith(File.separator)) signDirectoryPath += File.separator;
+        if (signDirectoryPath == null) signDirectoryPath = "";
         signDirectoryPath += dir.getName() + AppProperties.SIGNATURE_FILE_EXTENSION;
 
         // Supprimer l'ancien répertoire de signatures s'il existe
@@ -683,7 +779,7 @@ public final class KeyUtil {
         // Signer chaque fichier
         for (File file : files) {
             if (file.isFile()) signFile(file, signDirectoryPath, privateKey);
-            else if (file.isDirectory()) signDirectory(file, signDirectoryPath, privateKey);
+            else if (file.isDirectory()) signFilesOf(file, signDirectoryPath, privateKey);
             else Logger.log("Ignoré (ni fichier ni répertoire) : " + file.getName());
         }
 
@@ -698,6 +794,46 @@ public final class KeyUtil {
         return signDirectory(dir, "", privateKey);
     }
 
+    /**
+     * Valide un répertoire signé par un arbre de Merkle : la signature de l'arbre est vérifiée une fois,
+     * puis le répertoire est comparé à l'arbre. Les chemins qui diffèrent sont affichés ; pour les récupérer,
+     * voir {@link FileManager#queueSignedDirectory}.
+     * @param signedFile Le répertoire et son fichier d'arbre.
+     * @param space Indentation des logs.
+     * @return true si l'arbre est signé par une clé de confiance et que le répertoire lui est conforme.
+     */
+    private static boolean validateTree(SignedFile signedFile, String space) {
+        File treeFile = signedFile.signature();
+        SignedFile signedTree = new SignedFile(treeFile, new File(treeFile.getPath() + AppProperties.SIGNATURE_FILE_EXTENSION));
+        if (!signedTree.valid()) return false;
+
+        MerkleTree.Node expected = MerkleTree.load(treeFile);
+        if (expected == null) return false;
+
+        try {
+            List<String> differences = MerkleTree.diff(expected, signedFile.file().toPath());
+            if (differences.isEmpty()) {
+                Logger.log(space + "✅ Répertoire [" + signedFile.file().getName() + "] conforme à son arbre signé.");
+                return true;
+            }
+            Logger.log(space + "❌ Répertoire [" + signedFile.file().getName() + "] différent de son arbre signé :");
+            for (String path : differences) Logger.log(space + "   - " + path);
+            return false;
+        } catch (IOException e) {
+            Logger.error("Erreur lors de la vérification du répertoire : " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Vérifie la signature d'un fichier avec la seule Master Key, quelles que soient les clés de confiance chargées.
+     * @param signedFile Le fichier signé.
+     * @return true si la signature est celle de la Master Key, false sinon.
+     */
+    public static boolean verifyWithMasterKey(SignedFile signedFile) {
+        return verifyFile(signedFile, getPublicKeyFromString(AppProperties.DEFAULT_PUBLIC_KEY));
+    }
+
     /**
      * Vérifie la signature d'un fichier avec une clé publique donnée.
      * @param signedFile Le fichier signé.
@@ -705,21 +841,145 @@ public final class KeyUtil {
      * @return true si la signature est valide, false sinon.
      */
     public static boolean verifyFile(SignedFile signedFile, PublicKey publicKey) {
+        return publicKey != null && findSigner(signedFile, Map.of("", publicKey)) != null;
+    }
+
+    /**
+     * Cherche, parmi des clés publiques, celle qui a signé un fichier.
+     * Le fichier n'est lu qu'une fois, quel que soit le nombre de clés ; en mode historique,
+     * il n'est gardé en mémoire qu'une fois lui aussi.
+     * @param signedFile Le fichier signé.
+     * @param publicKeys Les clés publiques candidates, par alias.
+     * @return L'alias de la clé qui valide la signature, ou null si aucune ne la valide.
+     */
+    private static String findSigner(SignedFile signedFile, Map<String, PublicKey> publicKeys) {
 
         try {
-            // data du fichier
-            byte[] data = Files.readAllBytes(signedFile.file().toPath());
-            // data de la signature
-            byte[] sigBytes = Base64.getDecoder().decode(Files.readAllBytes(signedFile.signature().toPath()));
+            SignatureData signatureData = readSignature(signedFile.signature());
+            if (signatureData == null) return null;
+
+            // Signature identifiée par l'empreinte de sa clé : seule cette clé est essayée
+            if (signatureData.keyId() != null) {
+                Map<String, PublicKey> signerKey = new HashMap<>();
+                for (Map.Entry<String, PublicKey> entry : publicKeys.entrySet()) {
+                    if (entry.getValue() != null && signatureData.keyId().equals(getKeyFingerprint(entry.getValue()))) {
+                        signerKey.put(entry.getKey(), entry.getValue());
+                        break;
+                    }
+                }
+                if (signerKey.isEmpty()) {
+                    Logger.error("Clé de signature inconnue : " + signatureData.keyId());
+                    return null;
+                }
+                publicKeys = signerKey;
+            }
+
+            // Mode historique : Ed25519 pur garde tout le message en mémoire dans chaque vérificateur ;
+            // le fichier est lu une fois, puis les clés sont essayées l'une après l'autre
+            if (signatureData.mode().equals(LEGACY_SIGNATURE_MODE)) {
+                byte[] content = Files.readAllBytes(signedFile.file().toPath());
+                for (Map.Entry<String, PublicKey> entry : publicKeys.entrySet()) {
+                    if (entry.getValue() == null) continue;
+                    Signature sig = newSignature(signatureData.mode());
+                    sig.initVerify(entry.getValue());
+                    sig.update(content);
+                    if (sig.verify(signatureData.signature())) return entry.getKey();
+                }
+                return null;
+            }
 
-            Signature sig = Signature.getInstance(KEY_ALGORITHM);
-            sig.initVerify(publicKey);
-            sig.update(data);
+            // Un vérificateur par clé, tous alimentés par la même lecture du fichier
+            List<String> aliases = new ArrayList<>();
+            List<Signature> verifiers = new ArrayList<>();
+            for (Map.Entry<String, PublicKey> entry : publicKeys.entrySet()) {
+                if (entry.getValue() == null) continue;
+                Signature sig = newSignature(signatureData.mode());
+                sig.initVerify(entry.getValue());
+                aliases.add(entry.getKey());
+                verifiers.add(sig);
+            }
+            feed(signedFile.file().toPath(), verifiers.toArray(new Signature[0]));
 
-            return sig.verify(sigBytes);
+            for (int i = 0; i < verifiers.size(); i++) {
+                if (verifiers.get(i).verify(signatureData.signature())) return aliases.get(i);
+            }
+            return null;
         } catch (Exception e) {
             Logger.error("Erreur lors de la vérification de la signature : " + e.getMessage());
-            return false;
+            return null;
+        }
+    }
+
+    /**
+     * Lit un fichier de signature, au format JSON ({@code {"alg": ..., "sig": ...}}) ou historique (Base64 seul).
+     * @param signatureFile Le fichier de signature.
+     * @return Le contenu de la signature, ou null si le mode est inconnu.
+     */
+    private static SignatureData readSignature(File signatureFile) throws IOException {
+        String content = Files.readString(signatureFile.toPath(), StandardCharsets.UTF_8).trim();
+
+        if (!content.startsWith("{")) {
+            return new SignatureData(LEGACY_SIGNATURE_MODE, null, Base64.getDecoder().decode(content));
+        }
+
+        JSONObject json = new JSONObject(content);
+        String mode = json.getString("alg");
+        if (!mode.equals(PREHASH_SIGNATURE_MODE) && !mode.equals(LEGACY_SIGNATURE_MODE)) {
+            Logger.error("Mode de signature inconnu : " + mode);
+            return null;
+        }
+        return new SignatureData(mode, json.optString("kid", null), Base64.getDecoder().decode(json.getString("sig")));
+    }
+
+    /**
+     * Crée un objet de signature pour le mode donné.
+     */
+    private static Signature newSignature(String mode) throws GeneralSecurityException {
+        Signature sig = Signature.getInstance(KEY_ALGORITHM);
+        if (mode.equals(PREHASH_SIGNATURE_MODE)) sig.setParameter(new EdDSAParameterSpec(true));
+        return sig;
+    }
+
+    /**
+     * Transmet le contenu d'un fichier, lu par blocs, à des signatures en cours.
+     */
+    private static void feed(Path file, Signature... signatures) throws IOException, SignatureException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = FileManager.ioBuffer();
+            buffer.clear();
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                for (Signature sig : signatures) {
+                    sig.update(buffer);
+                    buffer.rewind();
+                }
+                buffer.clear();
+            }
+        }
+    }
+
+    /**
+     * Version du jeu de clés de confiance : SHA-256 des alias et des clés, triés.
+     * Elle change dès qu'une clé est ajoutée, retirée ou remplacée, ce qui invalide le cache des signatures.
+     */
+    private static String trustStoreVersion() {
+        MessageDigest digest = newDigest(FileManager.SHA256);
+        for (String alias : new TreeSet<>(TRUSTED_PUBLIC_KEYS.keySet())) {
+            digest.update(alias.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            PublicKey publicKey = TRUSTED_PUBLIC_KEYS.get(alias);
+            if (publicKey != null) digest.update(publicKey.getEncoded());
+            digest.update((byte) '\n');
+        }
+        return Hasher.toHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            Logger.fatal("Algorithme " + algorithm + " non trouvé : " + e.getMessage());
+            return null;
         }
     }
 
@@ -30,13 +30,13 @@ public final class Logger {
     public static final String PURPLE = "\u001B[35m";
 
     /** Log un message sans saut de ligne */
-    public static void logc(String message) {
+    public static synchronized void logc(String message) {
         message = message + RESET;
         System.out.print(message);
     }
 
     /** Log un message avec saut de ligne */
-    public static void log(String message) {
+    public static synchronized void log(String message) {
         message = message + RESET;
         System.out.println(message);
         logMessages.add(message );
@@ -71,7 +71,7 @@ public final class Logger {
     }
 
     /** Récupère tous les messages de log sous forme de chaîne */
-    public static String getLogMessages() {
+    public static synchronized String getLogMessages() {
         StringBuilder sb = new StringBuilder();
         for (String msg : logMessages) {
             sb.append(msg).append(System.lineSeparator());
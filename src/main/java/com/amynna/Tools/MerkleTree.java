@@ -0,0 +1,280 @@
+package com.amynna.Tools;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.util.*;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/**
+ * Arbre de Merkle d'un répertoire, pour le signer avec une seule signature.
+ * Chaque fichier est une feuille (son SHA-512), chaque répertoire un nœud dont le hachage couvre
+ * le nom, le type et le hachage de ses enfants, triés par nom. L'arbre complet est enregistré
+ * dans un fichier {@value #TREE_EXTENSION} signé : comparer l'arbre local à l'arbre signé, nœud par nœud,
+ * désigne exactement les fichiers et sous-répertoires qui diffèrent (les sous-arbres identiques sont ignorés).
+ * Les feuilles sont hachées en parallèle, via l'index de vérification (un fichier inchangé n'est pas relu).
+ */
+public final class MerkleTree {
+
+    // ---- [ ATTRIBUTS ] ----
+
+    /** Extension du fichier contenant l'arbre d'un répertoire signé. */
+    public static final String TREE_EXTENSION = ".merkle.json";
+
+    /** Algorithme des feuilles et des nœuds. */
+    private static final String ALGORITHM = FileManager.SHA512;
+
+    /** Préfixes de type dans le hachage d'un répertoire (séparation des domaines fichier / répertoire). */
+    private static final byte FILE_TYPE = 'f';
+    private static final byte DIRECTORY_TYPE = 'd';
+
+    /**
+     * Nœud de l'arbre.
+     * @param directory true pour un répertoire, false pour un fichier
+     * @param size Taille du fichier (0 pour un répertoire)
+     * @param hash Hachage du nœud (hexadécimal)
+     * @param children Enfants d'un répertoire, triés par nom (vide pour un fichier)
+     */
+    public record Node(boolean directory, long size, String hash, SortedMap<String, Node> children) {}
+
+    private MerkleTree() {
+        // Constructeur privé pour empêcher l'instanciation
+        Logger.fatal("MerkleTree ne peut pas être instancié.");
+    }
+
+    // ---- [ MÉTHODES PUBLIQUES ] ----
+
+    /**
+     * Construit l'arbre d'un répertoire.
+     * @param dir Répertoire
+     * @return La racine de l'arbre
+     * @throws IOException En cas d'erreur de lecture
+     */
+    public static Node build(Path dir) throws IOException {
+        try {
+            return ParallelVerifier.getPool().invoke(new BuildTask(dir));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            VerificationIndex.save();
+        }
+    }
+
+    /**
+     * Signe un répertoire : son arbre est écrit dans {@code <nom>}{@value #TREE_EXTENSION}, puis signé.
+     * @param dir Répertoire à signer
+     * @param signPath Répertoire où écrire l'arbre et sa signature
+     * @param privateKey Clé privée
+     * @return Le répertoire associé à son fichier d'arbre, ou null en cas d'erreur
+     */
+    public static SignedFile sign(File dir, String signPath, PrivateKey privateKey) {
+        try {
+            Node root = build(dir.toPath());
+            File treeFile = new File(signPath == null || signPath.isEmpty() ? "." : signPath, dir.getName() + TREE_EXTENSION);
+            Files.writeString(treeFile.toPath(), new JSONObject()
+                    .put("version", 1)
+                    .put("algorithm", ALGORITHM)
+                    .put("root", toJson(root))
+                    .toString(), StandardCharsets.UTF_8);
+
+            if (KeyUtil.sign(treeFile, treeFile.getParent(), privateKey) == null) return null;
+            Logger.log("Racine de l'arbre de " + dir.getName() + " : " + root.hash());
+            return new SignedFile(dir, treeFile);
+
+        } catch (IOException e) {
+            Logger.error("Erreur lors de la signature du répertoire " + dir + " : " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Lit un fichier d'arbre. Sa signature doit avoir été vérifiée par ailleurs.
+     * @param treeFile Fichier d'arbre
+     * @return La racine de l'arbre, ou null si le fichier est illisible
+     */
+    public static Node load(File treeFile) {
+        JSONObject json = FileManager.openJsonFile(treeFile);
+        if (json == null || !json.has("root") || !ALGORITHM.equals(json.optString("algorithm"))) {
+            Logger.error("Arbre de Merkle illisible : " + treeFile);
+            return null;
+        }
+        return fromJson(json.getJSONObject("root"));
+    }
+
+    /**
+     * Compare un répertoire à son arbre signé.
+     * Seuls les sous-arbres dont le hachage diffère sont parcourus.
+     * @param expected Arbre signé
+     * @param dir Répertoire local
+     * @return Les chemins relatifs qui diffèrent (fichiers modifiés, manquants ou en trop,
+     *         sous-répertoires manquants ou en trop), vide si le répertoire est conforme
+     * @throws IOException En cas d'erreur de lecture
+     */
+    public static List<String> diff(Node expected, Path dir) throws IOException {
+        List<String> differences = new ArrayList<>();
+        diff(expected, build(dir), "", differences);
+        return differences;
+    }
+
+    /**
+     * Fichiers de l'arbre signé qui corrigent les différences trouvées par {@link #diff(Node, Path)}.
+     * Un répertoire qui diffère est remplacé par tous ses fichiers ; les chemins absents de l'arbre
+     * (fichiers en trop) ne sont pas repris.
+     * @param expected Arbre signé
+     * @param differences Chemins relatifs qui diffèrent
+     * @return Les fichiers à récupérer : chemin relatif ➔ feuille (hachage et taille)
+     */
+    public static SortedMap<String, Node> filesToFetch(Node expected, List<String> differences) {
+        SortedMap<String, Node> files = new TreeMap<>();
+        for (String path : differences) {
+            Node node = expected;
+            String prefix = path.equals(".") ? "" : path;
+            if (!prefix.isEmpty()) {
+                for (String name : prefix.split("/")) {
+                    node = node.children().get(name);
+                    if (node == null) break;
+                }
+            }
+            if (node != null) collectFiles(node, prefix, files);
+        }
+        return files;
+    }
+
+    // ---- [ MÉTHODES PRIVÉES ] ----
+
+    /**
+     * Ajoute les fichiers d'un nœud (lui-même s'il s'agit d'un fichier) sous leur chemin relatif.
+     */
+    private static void collectFiles(Node node, String path, SortedMap<String, Node> files) {
+        if (!node.directory()) {
+            files.put(path, node);
+            return;
+        }
+        for (Map.Entry<String, Node> child : node.children().entrySet()) {
+            collectFiles(child.getValue(), path.isEmpty() ? child.getKey() : path + "/" + child.getKey(), files);
+        }
+    }
+
+    /**
+     * Compare deux nœuds, en ne descendant que dans les répertoires dont le hachage diffère.
+     */
+    private static void diff(Node expected, Node actual, String path, List<String> differences) {
+        if (expected.hash().equals(actual.hash())) return;
+        if (!expected.directory() || !actual.directory()) {
+            differences.add(path.isEmpty() ? "." : path);
+            return;
+        }
+
+        Set<String> names = new TreeSet<>(expected.children().keySet());
+        names.addAll(actual.children().keySet());
+        for (String name : names) {
+            String childPath = path.isEmpty() ? name : path + "/" + name;
+            Node expectedChild = expected.children().get(name);
+            Node actualChild = actual.children().get(name);
+            if (expectedChild == null || actualChild == null) differences.add(childPath);
+            else diff(expectedChild, actualChild, childPath, differences);
+        }
+    }
+
+    /**
+     * Construction d'un nœud : les sous-répertoires et les fichiers sont traités en parallèle.
+     */
+    private static final class BuildTask extends RecursiveTask<Node> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Path path;
+
+        private BuildTask(Path path) {
+            this.path = path;
+        }
+
+        @Override
+        protected Node compute() {
+            try {
+                if (!Files.isDirectory(path)) {
+                    String hash = VerificationIndex.hash(path.toFile(), ALGORITHM);
+                    if (hash == null) throw new IOException("Impossible de hacher " + path);
+                    return new Node(false, Files.size(path), hash, Collections.emptySortedMap());
+                }
+
+                List<Path> entries;
+                try (Stream<Path> stream = Files.list(path)) {
+                    entries = stream.sorted().toList();
+                }
+                List<BuildTask> tasks = new ArrayList<>();
+                for (Path entry : entries) tasks.add(new BuildTask(entry));
+                invokeAll(tasks);
+
+                SortedMap<String, Node> children = new TreeMap<>();
+                for (BuildTask task : tasks) children.put(task.path.getFileName().toString(), task.join());
+                return new Node(true, 0, directoryHash(children), children);
+
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Hachage d'un répertoire : nom, type et hachage de chaque enfant, dans l'ordre des noms.
+     */
+    private static String directoryHash(SortedMap<String, Node> children) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (Map.Entry<String, Node> child : children.entrySet()) {
+            digest.update(child.getKey().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(child.getValue().directory() ? DIRECTORY_TYPE : FILE_TYPE);
+            digest.update(Hasher.fromHex(child.getValue().hash()));
+        }
+        return Hasher.toHex(digest.digest());
+    }
+
+    private static JSONObject toJson(Node node) {
+        JSONObject json = new JSONObject().put("hash", node.hash());
+        if (!node.directory()) return json.put("size", node.size());
+
+        JSONObject children = new JSONObject();
+        for (Map.Entry<String, Node> child : node.children().entrySet()) children.put(child.getKey(), toJson(child.getValue()));
+        return json.put("children", children);
+    }
+
+    /**
+     * Relit un nœud. Le hachage de chaque répertoire est recalculé à partir de ses enfants :
+     * un arbre incohérent est détecté au lieu d'être utilisé pour la comparaison.
+     */
+    private static Node fromJson(JSONObject json) {
+        if (!json.has("children")) {
+            return new Node(false, json.getLong("size"), json.getString("hash").toLowerCase(), Collections.emptySortedMap());
+        }
+
+        SortedMap<String, Node> children = new TreeMap<>();
+        JSONObject childrenJson = json.getJSONObject("children");
+        for (String name : childrenJson.keySet()) {
+            Node child = fromJson(childrenJson.getJSONObject(name));
+            if (child == null) return null;
+            children.put(name, child);
+        }
+        String hash = directoryHash(children);
+        if (!hash.equalsIgnoreCase(json.getString("hash"))) {
+            Logger.error("Arbre de Merkle incohérent : hachage de répertoire invalide.");
+            return null;
+        }
+        return new Node(true, 0, hash, children);
+    }
+
+}
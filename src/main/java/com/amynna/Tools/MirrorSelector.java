@@ -0,0 +1,142 @@
+package com.amynna.Tools;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sélection des miroirs de téléchargement et politique de nouvelle tentative.
+ * Les miroirs sont déclarés dans {@link AppProperties#MIRRORS_FILE}, par préfixe d'origine :
+ * <pre>
+ * {
+ *   "https://libraries.minecraft.net/": ["https://miroir.example/libraries/"],
+ *   "https://maven.minecraftforge.net/": ["https://miroir.example/forge/"]
+ * }
+ * </pre>
+ * Chaque hôte est noté par une moyenne mobile exponentielle de sa latence mesurée,
+ * pénalisée à chaque échec : les candidats sont essayés du plus rapide au plus lent.
+ */
+public final class MirrorSelector {
+
+    // ---- [ ATTRIBUTS ] ----
+
+    /** Poids de la dernière mesure dans la moyenne mobile. */
+    private static final double EWMA_WEIGHT = 0.3;
+    /** Pénalité appliquée à un hôte à chaque échec (en millisecondes de latence). */
+    private static final double FAILURE_PENALTY = 5000;
+    /** Latence supposée d'un hôte jamais mesuré (en millisecondes). */
+    private static final double UNKNOWN_LATENCY = 200;
+
+    /** Miroirs déclarés, par préfixe d'origine. */
+    private static final Map<String, List<String>> MIRRORS = loadMirrors();
+
+    /** Latence moyenne mesurée par hôte (en millisecondes). */
+    private static final Map<String, Double> LATENCIES = new ConcurrentHashMap<>();
+
+    private MirrorSelector() {
+        // Constructeur privé pour empêcher l'instanciation
+        Logger.fatal("MirrorSelector ne peut pas être instancié.");
+    }
+
+    // ---- [ MÉTHODES PUBLIQUES ] ----
+
+    /**
+     * Retourne les URL candidates pour un fichier : l'URL d'origine et ses miroirs,
+     * triées de l'hôte le plus rapide au plus lent.
+     * @param url URL d'origine
+     * @return Les URL candidates (contient toujours au moins l'URL d'origine)
+     */
+    public static List<String> candidates(String url) {
+        List<String> candidates = new ArrayList<>();
+        candidates.add(url);
+        for (Map.Entry<String, List<String>> entry : MIRRORS.entrySet()) {
+            if (!url.startsWith(entry.getKey())) continue;
+            String path = url.substring(entry.getKey().length());
+            for (String mirror : entry.getValue()) candidates.add(mirror + path);
+        }
+        if (candidates.size() > 1) {
+            // Tri stable : à score égal, l'origine reste en tête
+            candidates.sort(Comparator.comparingDouble(candidate -> score(host(candidate))));
+        }
+        return candidates;
+    }
+
+    /**
+     * Enregistre une réponse obtenue d'un hôte.
+     * @param url URL interrogée
+     * @param latencyMillis Délai avant réception des en-têtes de la réponse (en millisecondes)
+     */
+    public static void recordSuccess(String url, long latencyMillis) {
+        LATENCIES.merge(host(url), (double) latencyMillis,
+                (previous, latest) -> (1 - EWMA_WEIGHT) * previous + EWMA_WEIGHT * latest);
+    }
+
+    /**
+     * Enregistre un échec d'un hôte (erreur réseau, code HTTP inattendu, contenu invalide).
+     * @param url URL interrogée
+     */
+    public static void recordFailure(String url) {
+        LATENCIES.merge(host(url), UNKNOWN_LATENCY + FAILURE_PENALTY,
+                (previous, ignored) -> previous + FAILURE_PENALTY);
+    }
+
+    /**
+     * Attend avant une nouvelle tentative : délai exponentiel (doublé à chaque échec, plafonné)
+     * avec gigue aléatoire, pour ne pas relancer toutes les requêtes au même instant.
+     * @param attempt Numéro de la tentative qui vient d'échouer (à partir de 1)
+     * @throws InterruptedException Si le thread est interrompu pendant l'attente
+     */
+    public static void backoff(int attempt) throws InterruptedException {
+        long ceiling = Math.min(AppProperties.RETRY_MAX_DELAY, AppProperties.RETRY_BASE_DELAY << Math.min(attempt - 1, 20));
+        // Gigue « égale » : au moins la moitié du délai, le reste tiré au hasard
+        long delay = ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+        Thread.sleep(delay);
+    }
+
+    // ---- [ MÉTHODES PRIVÉES ] ----
+
+    /**
+     * Score d'un hôte : sa latence moyenne, pénalités comprises (plus bas = meilleur).
+     */
+    private static double score(String host) {
+        return LATENCIES.getOrDefault(host, UNKNOWN_LATENCY);
+    }
+
+    /**
+     * Extrait l'hôte (avec le port) d'une URL.
+     */
+    private static String host(String url) {
+        try {
+            String authority = URI.create(url.replace('\\', '/').replace(" ", "%20")).getAuthority();
+            return authority == null ? url : authority;
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    /**
+     * Charge les miroirs déclarés, s'il y en a.
+     */
+    private static Map<String, List<String>> loadMirrors() {
+        Map<String, List<String>> mirrors = new LinkedHashMap<>();
+        if (!AppProperties.MIRRORS_FILE.isFile()) return mirrors;
+
+        JSONObject json = FileManager.openJsonFile(AppProperties.MIRRORS_FILE);
+        if (json == null) return mirrors;
+
+        for (String origin : json.keySet()) {
+            JSONArray array = json.optJSONArray(origin);
+            if (array == null) continue;
+            List<String> list = new ArrayList<>();
+            for (int i = 0; i < array.length(); i++) list.add(array.getString(i));
+            mirrors.put(origin, list);
+        }
+        Logger.log("Miroirs de téléchargement chargés : " + mirrors.keySet());
+        return mirrors;
+    }
+
+}
@@ -0,0 +1,384 @@
+package com.amynna.Tools;
+
+import org.json.JSONObject;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Paquets de fichiers signés publiés par le serveur du dépôt.
+ * Un paquet ({@code .pack}) est une archive ZIP qui regroupe de nombreux petits fichiers :
+ * ses deux premières entrées sont un index ({@value #INDEX_NAME}, chemin sur le serveur ➔ SHA-512 et taille)
+ * et la signature de cet index. Le client télécharge le paquet en un seul flux, vérifie la signature
+ * de l'index une seule fois, puis extrait chaque entrée directement à sa destination en vérifiant son SHA-512.
+ * Les chemins de l'index sont ceux de la disposition habituelle {@code v1/} : un fichier absent du paquet
+ * reste téléchargeable individuellement avec sa signature.
+ */
+public final class PackFile {
+
+    // ---- [ ATTRIBUTS ] ----
+
+    /** Extension des paquets. */
+    public static final String PACK_EXTENSION = ".pack";
+    /** Nom de l'index dans le paquet. */
+    public static final String INDEX_NAME = "pack-index.json";
+    /** Nom de la signature de l'index dans le paquet. */
+    public static final String INDEX_SIGNATURE_NAME = INDEX_NAME + AppProperties.SIGNATURE_FILE_EXTENSION;
+
+    /** Répertoire local des index de paquets vérifiés. */
+    private static final File INDEX_CACHE_DIR = new File(AppProperties.CACHE_DIR + File.separator + "packs" + File.separator);
+
+    /**
+     * Entrée de l'index d'un paquet.
+     * @param sha512 Hachage SHA-512 du fichier
+     * @param size Taille du fichier en octets
+     */
+    public record Entry(String sha512, long size) {}
+
+    private PackFile() {
+        // Constructeur privé pour empêcher l'instanciation
+        Logger.fatal("PackFile ne peut pas être instancié.");
+    }
+
+    // ---- [ MÉTHODES PUBLIQUES ] ----
+
+    /**
+     * Télécharge un paquet et extrait les fichiers demandés à leur destination, au fil du flux.
+     * @param onServerPath Chemin du paquet sur le serveur (ex. {@code modpack/mods.pack})
+     * @param destinations Fichiers à extraire : chemin sur le serveur ➔ destination locale
+     * @return Les entrées extraites et vérifiées (chemin sur le serveur ➔ entrée de l'index),
+     *         ou null si le paquet est indisponible ou son index invalide
+     */
+    public static Map<String, Entry> extract(String onServerPath, Map<String, File> destinations) {
+
+        String url = AppProperties.REPO_SERVER_URL + onServerPath;
+        Map<String, Entry> extracted = new HashMap<>();
+
+        try {
+            HttpResponse<InputStream> response = HttpTransport.openStream(HttpTransport.request(url).GET().build());
+            if (response.statusCode() != HttpURLConnection.HTTP_OK) {
+                response.body().close();
+                Logger.log("Paquet " + onServerPath + " indisponible (" + response.statusCode() + "), téléchargement fichier par fichier.");
+                return null;
+            }
+
+            try (ZipInputStream zis = new ZipInputStream(new BufferedInputStream(BandwidthLimiter.limit(response.body())))) {
+
+                // 1. Index et signature, en tête du paquet
+                Map<String, Entry> index = readIndex(zis, onServerPath);
+                if (index == null) return null;
+                saveValidators(onServerPath, response.headers());
+
+                // 2. Fichiers, extraits à la volée
+                ZipEntry zipEntry;
+                while ((zipEntry = zis.getNextEntry()) != null) {
+                    String name = zipEntry.getName();
+                    Entry entry = index.get(name);
+                    File destination = destinations.get(name);
+                    if (zipEntry.isDirectory() || destination == null) continue;
+
+                    if (entry == null) {
+                        Logger.error("Entrée absente de l'index signé, ignorée : " + name);
+                        continue;
+                    }
+                    if (extractEntry(zis, entry, destination.toPath())) {
+                        extracted.put(name, entry);
+                    } else {
+                        Logger.error("Hachage SHA-512 invalide pour " + name + " dans " + onServerPath);
+                    }
+                }
+            }
+
+            Logger.log(Logger.BLUE + "📦 Paquet " + onServerPath + " : " + extracted.size() + "/" + destinations.size() + " fichier(s) extrait(s)");
+            return extracted;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return extracted.isEmpty() ? null : extracted;
+        } catch (IOException e) {
+            Logger.error("Erreur lors de l'extraction du paquet " + onServerPath + " : " + e.getMessage());
+            return extracted.isEmpty() ? null : extracted;
+        }
+    }
+
+    /**
+     * Met à jour l'index du paquet publié sur le serveur, sans télécharger les fichiers.
+     * Le paquet est demandé de façon conditionnelle (ETag, Last-Modified de la dernière réponse) :
+     * s'il n'a pas changé, l'index en cache est conservé ; sinon seuls l'index et sa signature,
+     * en tête du paquet, sont lus avant de couper le flux.
+     * @param onServerPath Chemin du paquet sur le serveur
+     * @return L'index à jour (chemin sur le serveur ➔ entrée), vide si le paquet est indisponible ou invalide
+     */
+    public static Map<String, Entry> refreshIndex(String onServerPath) {
+        String url = AppProperties.REPO_SERVER_URL + onServerPath;
+        File validatorsFile = getCachedValidatorsFile(onServerPath);
+        Map<String, Entry> cached = loadCachedIndex(onServerPath);
+
+        HttpRequest.Builder builder = HttpTransport.request(url).GET();
+        JSONObject validators = cached.isEmpty() || !validatorsFile.isFile() ? null : FileManager.openJsonFile(validatorsFile);
+        if (validators != null) {
+            if (validators.has("etag")) builder.header("If-None-Match", validators.getString("etag"));
+            if (validators.has("last_modified")) builder.header("If-Modified-Since", validators.getString("last_modified"));
+        }
+
+        try {
+            HttpResponse<InputStream> response = HttpTransport.openStream(builder.build());
+
+            if (validators != null && response.statusCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                response.body().close();
+                return cached;
+            }
+            if (response.statusCode() != HttpURLConnection.HTTP_OK) {
+                response.body().close();
+                Logger.log("Paquet " + onServerPath + " indisponible (" + response.statusCode() + "), vérification fichier par fichier.");
+                deleteCachedIndex(onServerPath);
+                return Map.of();
+            }
+
+            // Fermer le flux après l'index interrompt le téléchargement du reste du paquet
+            try (ZipInputStream zis = new ZipInputStream(new BufferedInputStream(response.body()))) {
+                Map<String, Entry> index = readIndex(zis, onServerPath);
+                if (index == null) return Map.of();
+                saveValidators(onServerPath, response.headers());
+                return index;
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            Logger.error("Impossible de mettre à jour l'index du paquet " + onServerPath + " : " + e.getMessage());
+        }
+        // Version publiée inconnue : l'index en cache n'est plus une référence
+        return Map.of();
+    }
+
+    /**
+     * Charge l'index du dernier paquet vérifié, en revérifiant sa signature.
+     * L'index peut être périmé : pour contrôler des fichiers installés, préférer {@link #refreshIndex(String)}.
+     * @param onServerPath Chemin du paquet sur le serveur
+     * @return L'index (chemin sur le serveur ➔ entrée), vide s'il n'y en a pas ou s'il est invalide
+     */
+    public static Map<String, Entry> loadCachedIndex(String onServerPath) {
+        File indexFile = getCachedIndexFile(onServerPath);
+        File signatureFile = new File(indexFile.getPath() + AppProperties.SIGNATURE_FILE_EXTENSION);
+        if (!indexFile.isFile() || !signatureFile.isFile()) return Map.of();
+
+        if (!new SignedFile(indexFile, signatureFile).valid()) return Map.of();
+        Map<String, Entry> index = parseIndex(FileManager.openJsonFile(indexFile));
+        return index == null ? Map.of() : index;
+    }
+
+    /**
+     * Crée un paquet à partir d'un répertoire (commande d'administration).
+     * Chaque fichier du répertoire est indexé sous {@code prefix + chemin relatif}, qui doit correspondre
+     * à son chemin sur le serveur, puis l'index est signé avec la clé privée.
+     * @param sourceDir Répertoire à empaqueter
+     * @param prefix Chemin sur le serveur du répertoire (ex. {@code modpack/mods/})
+     * @param packFile Fichier paquet à créer
+     * @param privateKey Clé privée de signature
+     * @return Le paquet créé, ou null en cas d'erreur
+     */
+    public static File create(File sourceDir, String prefix, File packFile, PrivateKey privateKey) {
+
+        if (!sourceDir.isDirectory()) {
+            Logger.error("Le répertoire à empaqueter est introuvable : " + sourceDir);
+            return null;
+        }
+        String normalizedPrefix = prefix.isEmpty() || prefix.endsWith("/") ? prefix : prefix + "/";
+
+        try {
+            // Liste triée des fichiers, pour un paquet reproductible
+            List<Path> files = new ArrayList<>();
+            try (var stream = Files.walk(sourceDir.toPath())) {
+                stream.filter(Files::isRegularFile)
+                        .filter(file -> !file.toString().endsWith(DeltaSync.BLOCK_MAP_EXTENSION))
+                        .sorted()
+                        .forEach(files::add);
+            }
+
+            // Index
+            JSONObject filesJson = new JSONObject();
+            for (Path file : files) {
+                String name = normalizedPrefix + sourceDir.toPath().relativize(file).toString().replace(File.separatorChar, '/');
+                filesJson.put(name, new JSONObject()
+                        .put("sha512", FileManager.calculSHA(file.toFile(), FileManager.SHA512))
+                        .put("size", Files.size(file)));
+            }
+            Path workDir = Files.createTempDirectory("pack");
+            File indexFile = workDir.resolve(INDEX_NAME).toFile();
+            Files.writeString(indexFile.toPath(), new JSONObject().put("version", 1).put("files", filesJson).toString(2), StandardCharsets.UTF_8);
+
+            // Signature de l'index
+            SignedFile signedIndex = KeyUtil.sign(indexFile, workDir.toString(), privateKey);
+            if (signedIndex == null) return null;
+
+            // Archive : index et signature en tête, puis les fichiers
+            try (ZipOutputStream zos = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(packFile)))) {
+                addEntry(zos, INDEX_NAME, signedIndex.file().toPath());
+                addEntry(zos, INDEX_SIGNATURE_NAME, signedIndex.signature().toPath());
+                for (Path file : files) {
+                    addEntry(zos, normalizedPrefix + sourceDir.toPath().relativize(file).toString().replace(File.separatorChar, '/'), file);
+                }
+            }
+            FileManager.deleteFileIfExists(workDir.toFile());
+
+            Logger.log(Logger.GREEN + "Paquet créé : " + packFile + " (" + files.size() + " fichier(s))");
+            return packFile;
+
+        } catch (IOException e) {
+            Logger.error("Erreur lors de la création du paquet : " + e.getMessage());
+            return null;
+        }
+    }
+
+    // ---- [ MÉTHODES PRIVÉES ] ----
+
+    /**
+     * Lit l'index et sa signature en tête du paquet, vérifie la signature,
+     * et conserve l'index vérifié pour les contrôles suivants.
+     * @return L'index, ou null s'il est absent ou invalide
+     */
+    private static Map<String, Entry> readIndex(ZipInputStream zis, String onServerPath) throws IOException {
+        ZipEntry indexEntry = zis.getNextEntry();
+        if (indexEntry == null || !indexEntry.getName().equals(INDEX_NAME)) {
+            Logger.error("Paquet " + onServerPath + " invalide : l'index doit être la première entrée.");
+            return null;
+        }
+        byte[] indexBytes = zis.readAllBytes();
+
+        ZipEntry signatureEntry = zis.getNextEntry();
+        if (signatureEntry == null || !signatureEntry.getName().equals(INDEX_SIGNATURE_NAME)) {
+            Logger.error("Paquet " + onServerPath + " invalide : la signature de l'index doit être la deuxième entrée.");
+            return null;
+        }
+        byte[] signatureBytes = zis.readAllBytes();
+
+        // Index écrit dans le cache puis vérifié une seule fois
+        File indexFile = getCachedIndexFile(onServerPath);
+        File signatureFile = new File(indexFile.getPath() + AppProperties.SIGNATURE_FILE_EXTENSION);
+        Files.createDirectories(indexFile.toPath().getParent());
+        Files.write(indexFile.toPath(), indexBytes);
+        Files.write(signatureFile.toPath(), signatureBytes);
+
+        Files.deleteIfExists(getCachedValidatorsFile(onServerPath).toPath());
+
+        SignedFile signedIndex = new SignedFile(indexFile, signatureFile);
+        if (!signedIndex.valid()) {
+            Logger.error("Index du paquet " + onServerPath + " non signé avec une clé de confiance.");
+            signedIndex.delete();
+            return null;
+        }
+
+        Map<String, Entry> index = parseIndex(new JSONObject(new String(indexBytes, StandardCharsets.UTF_8)));
+        if (index == null) {
+            Logger.error("Index du paquet " + onServerPath + " illisible.");
+            signedIndex.delete();
+        }
+        return index;
+    }
+
+    /**
+     * Convertit l'index JSON d'un paquet (même format que le manifeste du serveur, {@link ServerManifest}).
+     */
+    static Map<String, Entry> parseIndex(JSONObject json) {
+        if (json == null || !json.has("files")) return null;
+        JSONObject files = json.getJSONObject("files");
+        Map<String, Entry> index = new HashMap<>();
+        for (String name : files.keySet()) {
+            JSONObject entry = files.getJSONObject(name);
+            index.put(name, new Entry(entry.getString("sha512").toLowerCase(), entry.getLong("size")));
+        }
+        return index;
+    }
+
+    /**
+     * Extrait l'entrée courante du flux vers sa destination, en vérifiant son SHA-512.
+     * Le fichier n'est déplacé à sa destination que si le hachage et la taille correspondent.
+     * @return true si l'entrée est extraite et vérifiée
+     */
+    private static boolean extractEntry(ZipInputStream zis, Entry entry, Path destination) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(FileManager.SHA512);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        Files.createDirectories(destination.getParent());
+        Path partFile = FileManager.getPartFile(destination);
+        long size = 0;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partFile))) {
+            byte[] buffer = new byte[64 * 1024];
+            int bytesRead;
+            while ((bytesRead = zis.read(buffer)) != -1) {
+                digest.update(buffer, 0, bytesRead);
+                out.write(buffer, 0, bytesRead);
+                size += bytesRead;
+            }
+        }
+
+        if (size != entry.size() || !FileManager.toHex(digest.digest()).equals(entry.sha512())) {
+            Files.deleteIfExists(partFile);
+            return false;
+        }
+        Files.move(partFile, destination, StandardCopyOption.REPLACE_EXISTING);
+        return true;
+    }
+
+    /**
+     * Ajoute un fichier à l'archive.
+     */
+    private static void addEntry(ZipOutputStream zos, String name, Path file) throws IOException {
+        zos.putNextEntry(new ZipEntry(name));
+        Files.copy(file, zos);
+        zos.closeEntry();
+    }
+
+    /**
+     * Emplacement local de l'index vérifié d'un paquet.
+     */
+    private static File getCachedIndexFile(String onServerPath) {
+        return new File(INDEX_CACHE_DIR, onServerPath.replace('/', '_') + ".index.json");
+    }
+
+    /**
+     * Emplacement local des validateurs HTTP (ETag, Last-Modified) du paquet dont l'index est en cache.
+     */
+    private static File getCachedValidatorsFile(String onServerPath) {
+        return new File(INDEX_CACHE_DIR, onServerPath.replace('/', '_') + ".validators.json");
+    }
+
+    /**
+     * Enregistre les validateurs HTTP de la version du paquet dont l'index vient d'être vérifié.
+     */
+    private static void saveValidators(String onServerPath, HttpHeaders headers) throws IOException {
+        JSONObject validators = new JSONObject();
+        headers.firstValue("ETag").ifPresent(etag -> validators.put("etag", etag));
+        headers.firstValue("Last-Modified").ifPresent(lastModified -> validators.put("last_modified", lastModified));
+        if (validators.isEmpty()) return;
+        Files.writeString(getCachedValidatorsFile(onServerPath).toPath(), validators.toString(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Supprime l'index en cache d'un paquet qui n'est plus publié.
+     */
+    private static void deleteCachedIndex(String onServerPath) {
+        File indexFile = getCachedIndexFile(onServerPath);
+        FileManager.deleteFileIfExists(indexFile);
+        FileManager.deleteFileIfExists(new File(indexFile.getPath() + AppProperties.SIGNATURE_FILE_EXTENSION));
+        FileManager.deleteFileIfExists(getCachedValidatorsFile(onServerPath));
+    }
+
+}
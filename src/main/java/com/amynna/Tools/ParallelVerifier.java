@@ -0,0 +1,191 @@
+package com.amynna.Tools;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Vérification parallèle de l'intégrité d'un ensemble de fichiers.
+ * Les vérifications sont réparties sur un pool à vol de tâches ({@link ForkJoinPool}) dont la taille
+ * dépend du support de stockage : tous les cœurs sur un SSD, deux threads sur un disque rotatif
+ * (où des lectures concurrentes multiplieraient les déplacements de la tête).
+ * Les résultats sont regroupés dans un seul {@link Report}.
+ */
+public final class ParallelVerifier {
+
+    // ---- [ ATTRIBUTS ] ----
+
+    /** Nombre d'éléments en dessous duquel une tâche n'est plus découpée. */
+    private static final int SPLIT_THRESHOLD = 8;
+
+    /** Nombre de threads de vérification sur un disque rotatif. */
+    private static final int ROTATIONAL_THREADS = 2;
+
+    /** Nombre maximal de threads quand le type de support est inconnu. */
+    private static final int UNKNOWN_STORAGE_THREADS = 4;
+
+    /** Pool de vérification, créé à la première utilisation. */
+    private static ForkJoinPool pool;
+
+    /**
+     * Rapport d'une vérification.
+     * @param name Nom de l'ensemble vérifié (pour les logs)
+     * @param total Nombre d'éléments vérifiés
+     * @param failed Éléments manquants ou corrompus, dans l'ordre d'origine
+     * @param elapsedMillis Durée de la vérification
+     * @param <T> Type des éléments
+     */
+    public record Report<T>(String name, int total, List<T> failed, long elapsedMillis) {
+
+        /** @return true si tous les éléments sont valides */
+        public boolean isClean() {
+            return failed.isEmpty();
+        }
+
+        /**
+         * Affiche le rapport.
+         * @param label Libellé d'un élément
+         */
+        public void log(Function<T, String> label) {
+            String summary = "[" + name + "] " + total + " fichier(s) vérifié(s) en " + elapsedMillis + " ms";
+            if (failed.isEmpty()) {
+                Logger.log(Logger.GREEN + summary + " : [OK]");
+                return;
+            }
+            Logger.error(summary + " : " + failed.size() + " manquant(s) ou corrompu(s) :");
+            for (T item : failed) Logger.error("   - " + label.apply(item));
+        }
+    }
+
+    private ParallelVerifier() {
+        // Constructeur privé pour empêcher l'instanciation
+        Logger.fatal("ParallelVerifier ne peut pas être instancié.");
+    }
+
+    // ---- [ MÉTHODES PUBLIQUES ] ----
+
+    /**
+     * Vérifie un ensemble d'éléments en parallèle.
+     * @param name Nom de l'ensemble (pour le rapport)
+     * @param items Éléments à vérifier
+     * @param check Vérification d'un élément, true s'il est valide
+     * @return Le rapport de vérification
+     * @param <T> Type des éléments
+     */
+    public static <T> Report<T> verify(String name, List<T> items, Predicate<T> check) {
+        long start = System.currentTimeMillis();
+        boolean[] valid = new boolean[items.size()];
+
+        getPool().invoke(new CheckTask<>(items, check, valid, 0, items.size()));
+
+        List<T> failed = new ArrayList<>();
+        for (int i = 0; i < valid.length; i++) if (!valid[i]) failed.add(items.get(i));
+        return new Report<>(name, items.size(), failed, System.currentTimeMillis() - start);
+    }
+
+    // ---- [ MÉTHODES PRIVÉES ] ----
+
+    /**
+     * Tâche de vérification d'une plage d'éléments, découpée en deux tant qu'elle est assez grande.
+     * Chaque tâche n'écrit que dans sa propre plage du tableau de résultats.
+     */
+    private static final class CheckTask<T> extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<T> items;
+        private final Predicate<T> check;
+        private final boolean[] valid;
+        private final int from;
+        private final int to;
+
+        private CheckTask(List<T> items, Predicate<T> check, boolean[] valid, int from, int to) {
+            this.items = items;
+            this.check = check;
+            this.valid = valid;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    try {
+                        valid[i] = check.test(items.get(i));
+                    } catch (RuntimeException e) {
+                        Logger.error("Erreur lors de la vérification de " + items.get(i) + " : " + e.getMessage());
+                        valid[i] = false;
+                    }
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new CheckTask<>(items, check, valid, from, middle),
+                      new CheckTask<>(items, check, valid, middle, to));
+        }
+    }
+
+    /**
+     * Pool de vérification partagé, dimensionné selon le support de stockage.
+     * @return Le pool
+     */
+    static synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            int threads = AppProperties.VERIFY_THREADS > 0 ? AppProperties.VERIFY_THREADS : threadsFor(AppProperties.LAUNCHER_ROOT.toPath());
+            Logger.log("Vérification sur " + threads + " thread(s).");
+            pool = new ForkJoinPool(threads, forkJoinPool -> {
+                var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                thread.setName("verify-worker");
+                thread.setDaemon(true);
+                return thread;
+            }, null, false);
+        }
+        return pool;
+    }
+
+    /**
+     * Détermine le nombre de threads adapté au support de stockage d'un répertoire.
+     * Sous Linux, le type de disque est lu dans {@code /sys/class/block/<périphérique>/queue/rotational}.
+     */
+    private static int threadsFor(Path dir) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        Boolean rotational = isRotational(dir);
+        if (rotational == null) return Math.min(processors, UNKNOWN_STORAGE_THREADS);
+        return rotational ? ROTATIONAL_THREADS : processors;
+    }
+
+    /**
+     * @return true pour un disque rotatif, false pour un SSD, null si le type est inconnu
+     */
+    private static Boolean isRotational(Path dir) {
+        try {
+            Path existing = dir.toAbsolutePath();
+            while (existing != null && !Files.exists(existing)) existing = existing.getParent();
+            if (existing == null) return null;
+
+            // Nom du périphérique (ex. /dev/nvme0n1p2, /dev/mapper/root -> /dev/dm-0)
+            String device = Files.getFileStore(existing).name();
+            if (!device.startsWith("/dev/")) return null;
+            String deviceName = Paths.get(device).toRealPath().getFileName().toString();
+
+            // Une partition n'a pas de file d'attente : celle du disque parent fait foi
+            Path block = Paths.get("/sys/class/block", deviceName);
+            if (!Files.exists(block)) return null;
+            block = block.toRealPath();
+            Path queue = block.resolve("queue/rotational");
+            if (!Files.exists(queue)) queue = block.getParent().resolve("queue/rotational");
+            if (!Files.exists(queue)) return null;
+
+            return Files.readString(queue).trim().equals("1");
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,275 @@
+package com.amynna.Tools;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Téléchargement segmenté des fichiers volumineux.
+ * Le fichier est découpé en plages d'octets téléchargées en parallèle (requêtes Range),
+ * puis écrites directement à leur position dans un fichier {@code .part} préalloué.
+ * La progression de chaque segment est sauvegardée à côté du fichier partiel
+ * pour reprendre un téléchargement interrompu sans repartir de zéro.
+ */
+public final class SegmentedDownloader {
+
+    // ---- [ ATTRIBUTS ] ----
+
+    /** Extension du fichier d'état des segments. */
+    private static final String STATE_FILE_EXTENSION = ".segments.json";
+
+    /** Intervalle de sauvegarde de la progression (en octets reçus par segment). */
+    private static final long STATE_SAVE_INTERVAL = 4L * 1024 * 1024;
+
+    /** Segment d'un téléchargement : plage [start, end] et nombre d'octets déjà reçus. */
+    private static final class Segment {
+        private final long start;
+        private final long end;
+        private volatile long done;
+
+        private Segment(long start, long end, long done) {
+            this.start = start;
+            this.end = end;
+            this.done = done;
+        }
+
+        private boolean complete() {
+            return start + done > end;
+        }
+    }
+
+    private SegmentedDownloader() {
+        // Constructeur privé pour empêcher l'instanciation
+        Logger.fatal("SegmentedDownloader ne peut pas être instancié.");
+    }
+
+    // ---- [ MÉTHODES PUBLIQUES ] ----
+
+    /**
+     * Interroge le serveur pour connaître la taille du fichier et s'il accepte les requêtes Range.
+     * @param url URL du fichier
+     * @return La taille totale du fichier, ou -1 si le serveur ne gère pas les plages
+     */
+    public static long probeRangeSupport(String url) {
+        HttpRequest request = HttpTransport.request(url)
+                .header("Range", "bytes=0-0")
+                .GET()
+                .build();
+
+        try {
+            HttpResponse<InputStream> response = HttpTransport.openStream(request);
+            response.body().close();
+            if (response.statusCode() != HttpURLConnection.HTTP_PARTIAL) return -1;
+
+            // Format attendu : "bytes 0-0/<taille>"
+            String contentRange = response.headers().firstValue("Content-Range").orElse("");
+            int slash = contentRange.lastIndexOf('/');
+            if (!contentRange.startsWith("bytes 0-0/") || slash < 0) return -1;
+            return Long.parseLong(contentRange.substring(slash + 1).trim());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Télécharge un fichier en plusieurs segments parallèles dans son fichier partiel.
+     * Le fichier partiel n'est pas déplacé : c'est à l'appelant de le vérifier puis de le valider.
+     * @param url URL du fichier
+     * @param partFile Fichier partiel de destination
+     * @param size Taille totale du fichier
+     * @param segmentCount Nombre de segments
+     * @return true si tous les segments ont été reçus, false sinon
+     */
+    public static boolean download(String url, Path partFile, long size, int segmentCount) {
+
+        Path stateFile = partFile.resolveSibling(partFile.getFileName() + STATE_FILE_EXTENSION);
+        List<Segment> segments = loadState(stateFile, partFile, size);
+        if (segments == null) segments = split(size, segmentCount);
+
+        ExecutorService pool = Executors.newFixedThreadPool(segments.size(), runnable -> {
+            Thread thread = new Thread(runnable, "download-segment");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try (RandomAccessFile raf = new RandomAccessFile(partFile.toFile(), "rw")) {
+            // Préallocation du fichier à sa taille finale
+            if (raf.length() != size) raf.setLength(size);
+            FileChannel channel = raf.getChannel();
+
+            final List<Segment> finalSegments = segments;
+            List<Future<Boolean>> results = new LinkedList<>();
+            for (Segment segment : segments) {
+                if (segment.complete()) continue;
+                results.add(pool.submit(() -> fetchSegment(url, channel, segment, stateFile, finalSegments, size)));
+            }
+
+            boolean success = true;
+            for (Future<Boolean> result : results) {
+                try {
+                    if (!result.get()) success = false;
+                } catch (Exception e) {
+                    success = false;
+                }
+            }
+
+            if (success) {
+                channel.force(false);
+                Files.deleteIfExists(stateFile);
+            } else {
+                saveState(stateFile, segments, size);
+            }
+            return success;
+
+        } catch (IOException e) {
+            Logger.error("Erreur lors du téléchargement segmenté de " + url + " : " + e.getMessage());
+            return false;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // ---- [ MÉTHODES PRIVÉES ] ----
+
+    /**
+     * Télécharge un segment, avec plusieurs tentatives reprenant au dernier octet reçu.
+     */
+    private static boolean fetchSegment(String url, FileChannel channel, Segment segment, Path stateFile, List<Segment> segments, long size) {
+
+        for (int attempt = 1; attempt <= AppProperties.SEGMENT_RETRIES; attempt++) {
+            long from = segment.start + segment.done;
+            HttpRequest request = HttpTransport.request(url)
+                    .header("Range", "bytes=" + from + "-" + segment.end)
+                    .GET()
+                    .build();
+
+            try {
+                HttpResponse<InputStream> response = HttpTransport.openStream(request);
+                if (response.statusCode() != HttpURLConnection.HTTP_PARTIAL
+                        || !response.headers().firstValue("Content-Range").orElse("").startsWith("bytes " + from + "-")) {
+                    response.body().close();
+                    throw new IOException("plage refusée, code HTTP : " + response.statusCode());
+                }
+
+                try (ReadableByteChannel in = Channels.newChannel(response.body())) {
+                    ByteBuffer buffer = FileManager.ioBuffer();
+                    long sinceSave = 0;
+                    int bytesRead;
+                    while (!segment.complete()) {
+                        // Ne jamais lire au-delà de la fin du segment
+                        buffer.clear();
+                        buffer.limit((int) Math.min(buffer.capacity(), segment.end - (segment.start + segment.done) + 1));
+                        if ((bytesRead = in.read(buffer)) == -1) break;
+                        BandwidthLimiter.acquire(bytesRead);
+                        buffer.flip();
+                        long position = segment.start + segment.done;
+                        while (buffer.hasRemaining()) position += channel.write(buffer, position);
+                        segment.done += bytesRead;
+
+                        sinceSave += bytesRead;
+                        if (sinceSave >= STATE_SAVE_INTERVAL) {
+                            saveState(stateFile, segments, size);
+                            sinceSave = 0;
+                        }
+                    }
+                }
+
+                if (segment.complete()) return true;
+                throw new IOException("flux terminé avant la fin du segment");
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (IOException e) {
+                MirrorSelector.recordFailure(url);
+                Logger.error("Segment [" + segment.start + "-" + segment.end + "] de " + url +
+                        " : tentative " + attempt + "/" + AppProperties.SEGMENT_RETRIES + " échouée (" + e.getMessage() + ")");
+            }
+
+            if (attempt < AppProperties.SEGMENT_RETRIES) {
+                try {
+                    MirrorSelector.backoff(attempt);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Découpe un fichier en segments de tailles égales.
+     */
+    private static List<Segment> split(long size, int segmentCount) {
+        List<Segment> segments = new LinkedList<>();
+        long segmentSize = (size + segmentCount - 1) / segmentCount;
+        for (long start = 0; start < size; start += segmentSize) {
+            segments.add(new Segment(start, Math.min(start + segmentSize, size) - 1, 0));
+        }
+        return segments;
+    }
+
+    /**
+     * Charge la progression d'un téléchargement précédent, si elle correspond au fichier partiel.
+     * @return Les segments restaurés, ou null si aucune reprise n'est possible
+     */
+    private static List<Segment> loadState(Path stateFile, Path partFile, long size) {
+        if (!Files.isRegularFile(stateFile) || !Files.isRegularFile(partFile)) return null;
+
+        JSONObject state = FileManager.openJsonFile(stateFile.toFile());
+        if (state == null || state.optLong("size", -1) != size) return null;
+
+        List<Segment> segments = new LinkedList<>();
+        JSONArray array = state.getJSONArray("segments");
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject json = array.getJSONObject(i);
+            segments.add(new Segment(json.getLong("start"), json.getLong("end"), json.getLong("done")));
+        }
+        return segments.isEmpty() ? null : segments;
+    }
+
+    /**
+     * Sauvegarde la progression de chaque segment.
+     */
+    private static synchronized void saveState(Path stateFile, List<Segment> segments, long size) {
+        JSONArray array = new JSONArray();
+        for (Segment segment : segments) {
+            array.put(new JSONObject()
+                    .put("start", segment.start)
+                    .put("end", segment.end)
+                    .put("done", segment.done));
+        }
+        JSONObject state = new JSONObject().put("size", size).put("segments", array);
+
+        try {
+            Files.writeString(stateFile, state.toString(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            Logger.error("Impossible de sauvegarder l'état du téléchargement : " + e.getMessage());
+        }
+    }
+
+}
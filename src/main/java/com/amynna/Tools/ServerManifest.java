@@ -0,0 +1,150 @@
+package com.amynna.Tools;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.PrivateKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Manifeste signé du serveur de dépôt : chemin, taille et SHA-512 de chaque fichier publié.
+ * Sa signature est vérifiée une seule fois, puis chaque fichier est contrôlé par son hachage :
+ * plus de fichier {@code .sig} à télécharger ni de vérification Ed25519 par fichier.
+ * Les fichiers absents du manifeste (ou un serveur qui n'en publie pas) gardent leur signature individuelle.
+ * Le manifeste n'est accepté que signé par la Master Key : sa validité ne dépend pas des clés de confiance
+ * chargées au moment de la première demande. Le fichier des clés de confiance n'y figure jamais,
+ * il reste validé par sa propre signature.
+ */
+public final class ServerManifest {
+
+    // ---- [ ATTRIBUTS ] ----
+
+    /** Chemin du manifeste sur le serveur (sa signature est publiée comme celle de tout autre fichier). */
+    public static final String MANIFEST_NAME = "manifest.json";
+
+    /** Copie locale du manifeste. */
+    private static final File MANIFEST_FILE = new File(AppProperties.CACHE_DIR + File.separator + MANIFEST_NAME);
+
+    /** Entrées du manifeste vérifié (chemin sur le serveur ➔ entrée), vide si le serveur n'en publie pas. */
+    private static Map<String, PackFile.Entry> entries;
+
+    private ServerManifest() {
+        // Constructeur privé pour empêcher l'instanciation
+        Logger.fatal("ServerManifest ne peut pas être instancié.");
+    }
+
+    // ---- [ MÉTHODES PUBLIQUES ] ----
+
+    /**
+     * Donne l'entrée d'un fichier du serveur dans le manifeste.
+     * Le manifeste est téléchargé et vérifié à la première demande.
+     * @param onServerPath Chemin du fichier sur le serveur
+     * @return L'entrée du fichier, ou null s'il n'est pas couvert par le manifeste
+     */
+    public static synchronized PackFile.Entry get(String onServerPath) {
+        if (onServerPath.equals(MANIFEST_NAME) || onServerPath.equals(KeyUtil.TRUSTED_KEYS_NAME)) return null;
+        if (entries == null) entries = load();
+        return entries.get(onServerPath);
+    }
+
+    /**
+     * Vérifie un fichier local avec son entrée dans le manifeste (taille, puis SHA-512 via l'index de vérification).
+     * @param entry Entrée du manifeste
+     * @param file Fichier local
+     * @return true si le fichier correspond à l'entrée
+     */
+    public static boolean verify(PackFile.Entry entry, File file) {
+        return file.isFile() && file.length() == entry.size()
+                && VerificationIndex.verify(file, entry.sha512(), FileManager.SHA512);
+    }
+
+    /**
+     * Génère et signe le manifeste d'un répertoire du serveur (commande d'administration).
+     * Le manifeste est écrit à la racine du répertoire, sa signature dans {@code signatures/}.
+     * Les signatures, les cartes de blocs, le fichier des clés de confiance et le manifeste lui-même n'y figurent pas.
+     * Le manifeste doit être signé avec la Master Key pour être accepté par les clients.
+     * @param rootDir Racine du dépôt sur le serveur (ex. {@code v1/})
+     * @param privateKey Clé privée de signature
+     * @return Le manifeste signé, ou null en cas d'erreur
+     */
+    public static SignedFile create(File rootDir, PrivateKey privateKey) {
+        if (!rootDir.isDirectory()) {
+            Logger.error("Le répertoire du dépôt est introuvable : " + rootDir);
+            return null;
+        }
+        Path root = rootDir.toPath();
+        Path signaturesDir = root.resolve("signatures");
+
+        try {
+            // Liste triée des fichiers, pour un manifeste reproductible
+            List<Path> files = new ArrayList<>();
+            try (var stream = Files.walk(root)) {
+                stream.filter(Files::isRegularFile)
+                        .filter(file -> !file.startsWith(signaturesDir))
+                        .filter(file -> !file.equals(root.resolve(MANIFEST_NAME)))
+                        .filter(file -> !file.equals(root.resolve(KeyUtil.TRUSTED_KEYS_NAME)))
+                        .filter(file -> !file.toString().endsWith(DeltaSync.BLOCK_MAP_EXTENSION))
+                        .sorted()
+                        .forEach(files::add);
+            }
+
+            JSONObject filesJson = new JSONObject();
+            for (Path file : files) {
+                String name = root.relativize(file).toString().replace(File.separatorChar, '/');
+                filesJson.put(name, new JSONObject()
+                        .put("sha512", Hasher.hash(file, FileManager.SHA512))
+                        .put("size", Files.size(file)));
+            }
+            File manifestFile = root.resolve(MANIFEST_NAME).toFile();
+            Files.writeString(manifestFile.toPath(), new JSONObject().put("version", 1).put("files", filesJson).toString(2), StandardCharsets.UTF_8);
+
+            Files.createDirectories(signaturesDir);
+            SignedFile signedManifest = KeyUtil.sign(manifestFile, signaturesDir.toString(), privateKey);
+            if (signedManifest != null) Logger.log(Logger.GREEN + "Manifeste créé : " + manifestFile + " (" + files.size() + " fichier(s))");
+            return signedManifest;
+
+        } catch (IOException e) {
+            Logger.error("Erreur lors de la création du manifeste : " + e.getMessage());
+            return null;
+        }
+    }
+
+    // ---- [ MÉTHODES PRIVÉES ] ----
+
+    /**
+     * Télécharge (si modifié) le manifeste du serveur et vérifie qu'il est signé par la Master Key.
+     * @return Les entrées du manifeste, ou une table vide s'il est absent ou invalide
+     */
+    private static Map<String, PackFile.Entry> load() {
+        FileManager.CachedFile file = FileManager.downloadIfModified(AppProperties.REPO_SERVER_URL + MANIFEST_NAME, MANIFEST_FILE.getPath());
+        FileManager.CachedFile signature = file == null ? null : FileManager.downloadIfModified(
+                AppProperties.SIGNATURE_LOCATION_ON_SERVER + MANIFEST_NAME + AppProperties.SIGNATURE_FILE_EXTENSION,
+                AppProperties.SIGNATURE_DIR.getPath() + File.separator + MANIFEST_NAME + AppProperties.SIGNATURE_FILE_EXTENSION);
+        if (file == null || signature == null) {
+            Logger.log("Pas de manifeste signé sur le serveur : vérification des fichiers par leur signature.");
+            return Map.of();
+        }
+
+        SignedFile manifest = new SignedFile(file.file(), signature.file());
+        if (!KeyUtil.verifyWithMasterKey(manifest)) {
+            Logger.error("Manifeste du serveur non signé par la Master Key : vérification des fichiers par leur signature.");
+            manifest.delete();
+            return Map.of();
+        }
+
+        Map<String, PackFile.Entry> index = PackFile.parseIndex(FileManager.openJsonFile(manifest.file()));
+        if (index == null) {
+            Logger.error("Manifeste du serveur illisible : vérification des fichiers par leur signature.");
+            return Map.of();
+        }
+        Logger.log(Logger.GREEN + "Manifeste signé du serveur vérifié (" + index.size() + " fichier(s)).");
+        return index;
+    }
+
+}
@@ -0,0 +1,195 @@
+package com.amynna.Tools;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache persistant des signatures déjà vérifiées.
+ * Pour chaque fichier signé sont mémorisés ses métadonnées (taille, date, inode),
+ * le hachage de son fichier de signature, l'alias de la clé qui l'a signé et la version du jeu de clés de confiance.
+ * Tant que le fichier et sa signature n'ont pas changé et que les clés de confiance sont les mêmes,
+ * la signature est considérée valide sans relire le fichier.
+ * Le cache est écrit sur le disque par {@link #save()}, une fois les vérifications terminées.
+ */
+public final class SignatureCache {
+
+    // ---- [ ATTRIBUTS ] ----
+
+    /**
+     * Vérification mémorisée.
+     * @param size Taille du fichier
+     * @param mtime Date de modification du fichier (en microsecondes)
+     * @param fileKey Identifiant du fichier sur le disque (inode), ou null si le système n'en fournit pas
+     * @param signatureHash SHA-256 du fichier de signature
+     * @param signer Alias de la clé qui a validé la signature
+     * @param trustStore Version du jeu de clés de confiance utilisé
+     */
+    private record Entry(long size, long mtime, String fileKey, String signatureHash, String signer, String trustStore) {}
+
+    /** Vérifications, par chemin absolu du fichier signé. */
+    private static final Map<String, Entry> ENTRIES = load();
+    /** Indique si le cache a changé depuis son dernier enregistrement. */
+    private static volatile boolean dirty = false;
+
+    private SignatureCache() {
+        // Constructeur privé pour empêcher l'instanciation
+        Logger.fatal("SignatureCache ne peut pas être instancié.");
+    }
+
+    // ---- [ MÉTHODES PUBLIQUES ] ----
+
+    /**
+     * Cherche une vérification encore valable pour un fichier signé.
+     * @param signedFile Le fichier signé
+     * @param trustStore Version actuelle du jeu de clés de confiance
+     * @return L'alias de la clé qui a signé le fichier, ou null s'il faut vérifier la signature
+     */
+    public static String lookup(SignedFile signedFile, String trustStore) {
+        if (VerificationIndex.isDeepCheck()) return null;
+
+        Entry known = ENTRIES.get(key(signedFile.file()));
+        if (known == null || !known.trustStore().equals(trustStore)) return null;
+
+        Entry current = describe(signedFile.file());
+        if (current == null
+                || known.size() != current.size()
+                || known.mtime() != current.mtime()
+                || !(known.fileKey() == null ? current.fileKey() == null : known.fileKey().equals(current.fileKey()))) {
+            return null;
+        }
+
+        // Le fichier de signature est minuscule : son contenu est comparé, pas seulement ses métadonnées
+        String signatureHash = hashSignature(signedFile.signature());
+        if (signatureHash == null || !signatureHash.equals(known.signatureHash())) return null;
+
+        return known.signer();
+    }
+
+    /**
+     * Mémorise une signature qui vient d'être vérifiée.
+     * @param signedFile Le fichier signé
+     * @param signer Alias de la clé qui a validé la signature
+     * @param trustStore Version du jeu de clés de confiance
+     */
+    public static void record(SignedFile signedFile, String signer, String trustStore) {
+        Entry current = describe(signedFile.file());
+        String signatureHash = hashSignature(signedFile.signature());
+        if (current == null || signatureHash == null) return;
+
+        ENTRIES.put(key(signedFile.file()), new Entry(current.size(), current.mtime(), current.fileKey(),
+                signatureHash, signer, trustStore));
+        dirty = true;
+    }
+
+    /**
+     * Oublie la vérification d'un fichier (signature devenue invalide).
+     * @param signedFile Le fichier signé
+     */
+    public static void forget(SignedFile signedFile) {
+        if (ENTRIES.remove(key(signedFile.file())) != null) dirty = true;
+    }
+
+    /**
+     * Enregistre le cache sur le disque, sans les fichiers qui n'existent plus.
+     * Sans effet si rien n'a changé depuis le dernier enregistrement.
+     */
+    public static synchronized void save() {
+        if (!dirty) return;
+        dirty = false;
+
+        ENTRIES.keySet().removeIf(path -> !Files.isRegularFile(Paths.get(path)));
+
+        JSONObject json = new JSONObject();
+        for (Map.Entry<String, Entry> entry : ENTRIES.entrySet()) {
+            Entry value = entry.getValue();
+            JSONObject item = new JSONObject()
+                    .put("size", value.size())
+                    .put("mtime", value.mtime())
+                    .put("signature_hash", value.signatureHash())
+                    .put("signer", value.signer())
+                    .put("trust_store", value.trustStore());
+            if (value.fileKey() != null) item.put("file_key", value.fileKey());
+            json.put(entry.getKey(), item);
+        }
+
+        Path cacheFile = AppProperties.SIGNATURE_CACHE_FILE.toPath();
+        Path temp = cacheFile.resolveSibling(cacheFile.getFileName() + "." + ProcessHandle.current().pid() + ".tmp");
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            Files.writeString(temp, json.toString(), StandardCharsets.UTF_8);
+            Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Logger.error("Impossible d'enregistrer le cache des signatures : " + e.getMessage());
+        }
+    }
+
+    // ---- [ MÉTHODES PRIVÉES ] ----
+
+    /**
+     * Lit les métadonnées d'un fichier.
+     * @return Une entrée ne contenant que les métadonnées, ou null si le fichier n'existe pas
+     */
+    private static Entry describe(File file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) return null;
+            Object fileKey = attributes.fileKey();
+            return new Entry(attributes.size(), attributes.lastModifiedTime().to(TimeUnit.MICROSECONDS),
+                    fileKey == null ? null : fileKey.toString(), null, null, null);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * SHA-256 du contenu d'un fichier de signature.
+     */
+    private static String hashSignature(File signature) {
+        try {
+            byte[] content = Files.readAllBytes(signature.toPath());
+            return Hasher.toHex(MessageDigest.getInstance(FileManager.SHA256).digest(content));
+        } catch (IOException | NoSuchAlgorithmException e) {
+            return null;
+        }
+    }
+
+    private static String key(File file) {
+        return file.toPath().toAbsolutePath().normalize().toString();
+    }
+
+    /**
+     * Charge le cache enregistré, s'il existe.
+     */
+    private static Map<String, Entry> load() {
+        Map<String, Entry> entries = new ConcurrentHashMap<>();
+        File cacheFile = AppProperties.SIGNATURE_CACHE_FILE;
+        if (!cacheFile.isFile()) return entries;
+
+        JSONObject json = FileManager.openJsonFile(cacheFile);
+        if (json == null) return entries;
+
+        for (String path : json.keySet()) {
+            JSONObject item = json.getJSONObject(path);
+            entries.put(path, new Entry(
+                    item.getLong("size"),
+                    item.getLong("mtime"),
+                    item.optString("file_key", null),
+                    item.getString("signature_hash"),
+                    item.getString("signer"),
+                    item.getString("trust_store")
+            ));
+        }
+        return entries;
+    }
+
+}
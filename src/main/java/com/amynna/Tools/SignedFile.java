@@ -2,10 +2,15 @@ package com.amynna.Tools;
 
 import java.io.File;
 
+/**
+ * Fichier et sa signature.
+ * La signature peut être null pour un fichier vérifié par le manifeste signé du serveur ({@link ServerManifest}) :
+ * il n'a alors pas de signature individuelle à valider.
+ */
 public record SignedFile(File file, File signature) {
 
     public boolean exists() {
-        return file.exists() && signature.exists();
+        return file != null && file.exists() && signature != null && signature.exists();
     }
 
     public boolean valid() {
@@ -13,12 +18,12 @@ public record SignedFile(File file, File signature) {
     }
 
     public void delete() {
-        FileManager.deleteFileIfExists(file);
-        FileManager.deleteFileIfExists(signature);
+        if (file != null) FileManager.deleteFileIfExists(file);
+        if (signature != null) FileManager.deleteFileIfExists(signature);
     }
 
     public boolean isDirectory() {
-        return file.isDirectory() && signature.isDirectory();
+        return file != null && signature != null && file.isDirectory() && signature.isDirectory();
     }
 
 }
@@ -0,0 +1,400 @@
+package com.amynna.Tools;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Extracteur TAR.GZ en Java pur, qui lit l'archive au fil d'un flux (fichier ou réponse HTTP).
+ * Formats pris en charge : ustar, noms longs GNU ({@code L}/{@code K}) et en-têtes pax ({@code x}).
+ * Les permissions sont restaurées sur les systèmes POSIX (bit d'exécution sinon).
+ * Toute entrée qui sortirait du répertoire de destination (chemin ou cible de lien) fait échouer l'extraction ;
+ * les liens ne sont créés qu'une fois tous les fichiers écrits, aucune écriture ne peut donc les traverser,
+ * et aucun lien ne peut passer par un lien symbolique (de l'archive ou déjà présent) : les chaînes de liens
+ * telles que {@code s2 -> .}, {@code s1 -> s2/..} sont refusées.
+ */
+public final class TarGzExtractor {
+
+    // ---- [ ATTRIBUTS ] ----
+
+    /** Taille d'un bloc TAR. */
+    private static final int BLOCK_SIZE = 512;
+    /** Taille du tampon de copie des fichiers. */
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    /** Types d'entrées TAR. */
+    private static final byte TYPE_FILE = '0';
+    private static final byte TYPE_FILE_OLD = 0;
+    private static final byte TYPE_HARD_LINK = '1';
+    private static final byte TYPE_SYMLINK = '2';
+    private static final byte TYPE_DIRECTORY = '5';
+    private static final byte TYPE_CONTIGUOUS = '7';
+    private static final byte TYPE_PAX_HEADER = 'x';
+    private static final byte TYPE_PAX_GLOBAL = 'g';
+    private static final byte TYPE_GNU_LONG_NAME = 'L';
+    private static final byte TYPE_GNU_LONG_LINK = 'K';
+
+    /**
+     * Lien à créer en fin d'extraction.
+     * @param link Emplacement du lien
+     * @param target Cible telle qu'écrite dans l'archive
+     * @param hard Lien physique (cible relative à la racine de l'archive) ou symbolique (relative au lien)
+     */
+    private record PendingLink(Path link, String target, boolean hard) {}
+
+    private TarGzExtractor() {
+        // Constructeur privé pour empêcher l'instanciation
+        Logger.fatal("TarGzExtractor ne peut pas être instancié.");
+    }
+
+    // ---- [ MÉTHODES PUBLIQUES ] ----
+
+    /**
+     * Extrait une archive TAR.GZ lue depuis un flux.
+     * Le flux n'est pas lu au-delà de la fin de l'archive TAR ni fermé : l'appelant peut le vider
+     * (pour terminer un calcul de hachage) puis le fermer.
+     * @param compressed Flux de l'archive compressée
+     * @param destDir Répertoire de destination
+     * @return Le nombre d'entrées extraites
+     * @throws IOException En cas d'archive invalide, d'entrée hors de la destination ou d'erreur d'écriture
+     */
+    public static int extract(InputStream compressed, Path destDir) throws IOException {
+
+        Path root = destDir.toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        Path realRoot = root.toRealPath();
+        boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+
+        InputStream in = new GZIPInputStream(new FilterInputStream(compressed) {
+            @Override
+            public void close() {
+                // Le flux source reste à l'appelant
+            }
+        }, COPY_BUFFER_SIZE);
+
+        byte[] header = new byte[BLOCK_SIZE];
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        List<PendingLink> links = new ArrayList<>();
+        Map<Path, Long> directoryTimes = new LinkedHashMap<>();
+        Map<String, String> pax = new HashMap<>();
+        String longName = null;
+        String longLink = null;
+        int count = 0;
+
+        while (readBlock(in, header)) {
+            if (isZeroBlock(header)) break; // Fin de l'archive
+            verifyChecksum(header);
+
+            byte type = header[156];
+            long headerSize = parseNumber(header, 124, 12);
+
+            // En-têtes d'extension : s'appliquent à l'entrée suivante
+            if (type == TYPE_PAX_HEADER || type == TYPE_PAX_GLOBAL) {
+                Map<String, String> records = parsePax(readData(in, headerSize));
+                if (type == TYPE_PAX_HEADER) pax.putAll(records);
+                continue;
+            }
+            if (type == TYPE_GNU_LONG_NAME || type == TYPE_GNU_LONG_LINK) {
+                String value = parseString(readData(in, headerSize), 0, (int) headerSize);
+                if (type == TYPE_GNU_LONG_NAME) longName = value;
+                else longLink = value;
+                continue;
+            }
+
+            long size = pax.containsKey("size") ? Long.parseLong(pax.get("size")) : headerSize;
+            String name = pax.getOrDefault("path", longName != null ? longName : entryName(header));
+            String linkName = pax.getOrDefault("linkpath", longLink != null ? longLink : parseString(header, 157, 100));
+            int mode = (int) parseNumber(header, 100, 8);
+            long mtime = pax.containsKey("mtime") ? (long) Double.parseDouble(pax.get("mtime")) : parseNumber(header, 136, 12);
+            pax.clear();
+            longName = null;
+            longLink = null;
+
+            Path target = resolve(root, name);
+
+            switch (type) {
+                case TYPE_DIRECTORY -> {
+                    Files.createDirectories(target);
+                    directoryTimes.put(target, mtime);
+                    setPermissions(target, mode, posix);
+                    skip(in, size);
+                }
+                case TYPE_SYMLINK -> {
+                    links.add(new PendingLink(target, linkName, false));
+                    skip(in, size);
+                }
+                case TYPE_HARD_LINK -> {
+                    links.add(new PendingLink(target, linkName, true));
+                    skip(in, size);
+                }
+                case TYPE_FILE, TYPE_FILE_OLD, TYPE_CONTIGUOUS -> {
+                    Files.createDirectories(target.getParent());
+                    checkParent(root, realRoot, target, Set.of());
+                    try (OutputStream out = Files.newOutputStream(target)) {
+                        long remaining = size;
+                        while (remaining > 0) {
+                            int bytesRead = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                            if (bytesRead == -1) throw new EOFException("Archive tronquée : " + name);
+                            out.write(buffer, 0, bytesRead);
+                            remaining -= bytesRead;
+                        }
+                    }
+                    skipPadding(in, size);
+                    Files.setLastModifiedTime(target, FileTime.fromMillis(mtime * 1000));
+                    setPermissions(target, mode, posix);
+                }
+                default -> {
+                    // Périphériques, FIFO, etc. : inutiles pour les archives du launcher
+                    Logger.log("Entrée TAR ignorée (type " + (char) type + ") : " + name);
+                    skip(in, size);
+                    continue;
+                }
+            }
+            count++;
+        }
+
+        // Liens, une fois tous les fichiers en place
+        Set<Path> linkPaths = new HashSet<>();
+        for (PendingLink link : links) linkPaths.add(link.link());
+        for (PendingLink link : links) createLink(root, realRoot, link, linkPaths);
+
+        // Dates des répertoires en dernier : l'écriture de leur contenu les modifie
+        for (Map.Entry<Path, Long> entry : directoryTimes.entrySet()) {
+            Files.setLastModifiedTime(entry.getKey(), FileTime.fromMillis(entry.getValue() * 1000));
+        }
+        return count;
+    }
+
+    // ---- [ MÉTHODES PRIVÉES ] ----
+
+    /**
+     * Résout le chemin d'une entrée et vérifie qu'il reste dans le répertoire de destination.
+     */
+    private static Path resolve(Path root, String name) throws IOException {
+        Path target = root.resolve(name).normalize();
+        if (Paths.get(name).isAbsolute() || !target.startsWith(root)) {
+            throw new IOException("Entrée hors du répertoire de destination : " + name);
+        }
+        return target;
+    }
+
+    /**
+     * Vérifie qu'aucun répertoire parent d'une entrée n'est un lien symbolique (présent ou créé par l'archive)
+     * et que le répertoire parent réel reste dans la destination.
+     * @param linkPaths Emplacements des liens de l'archive
+     */
+    private static void checkParent(Path root, Path realRoot, Path path, Set<Path> linkPaths) throws IOException {
+        for (Path parent = path.getParent(); parent != null && parent.startsWith(root) && !parent.equals(root); parent = parent.getParent()) {
+            if (linkPaths.contains(parent) || Files.isSymbolicLink(parent)) {
+                throw new IOException("Entrée sous un lien symbolique : " + root.relativize(path));
+            }
+        }
+        Path parent = path.getParent();
+        if (Files.exists(parent) && !parent.toRealPath().startsWith(realRoot)) {
+            throw new IOException("Entrée hors du répertoire de destination : " + root.relativize(path));
+        }
+    }
+
+    /**
+     * Résout la cible d'un lien composant par composant, sans normalisation préalable :
+     * chaque répertoire traversé doit rester dans la destination et ne pas être un lien symbolique,
+     * car le système résout {@code lien/..} à partir de la cible du lien, et non du lien lui-même.
+     * @param base Répertoire à partir duquel la cible est résolue
+     * @param linkPaths Emplacements des liens de l'archive
+     * @return La cible résolue
+     */
+    private static Path resolveLinkTarget(Path root, Path base, String target, Set<Path> linkPaths) throws IOException {
+        if (Paths.get(target).isAbsolute()) throw new IOException("Cible de lien absolue : " + target);
+
+        Path current = base;
+        Path relative = Paths.get(target);
+        for (int i = 0; i < relative.getNameCount(); i++) {
+            String component = relative.getName(i).toString();
+            if (component.equals(".") || component.isEmpty()) continue;
+            if (current.equals(root) && component.equals("..")) throw new IOException("Cible de lien hors du répertoire de destination : " + target);
+
+            // Le répertoire traversé ne doit pas être un lien
+            if (!current.equals(root) && (linkPaths.contains(current) || Files.isSymbolicLink(current))) {
+                throw new IOException("Cible de lien traversant un lien symbolique : " + target);
+            }
+            current = component.equals("..") ? current.getParent() : current.resolve(component);
+        }
+        if (!current.startsWith(root)) throw new IOException("Cible de lien hors du répertoire de destination : " + target);
+        return current;
+    }
+
+    /**
+     * Crée un lien de l'archive, après avoir vérifié que son emplacement et sa cible restent dans le répertoire
+     * de destination sans traverser de lien symbolique. Sans liens symboliques (Windows sans privilège), la cible est copiée.
+     */
+    private static void createLink(Path root, Path realRoot, PendingLink link, Set<Path> linkPaths) throws IOException {
+        try {
+            checkParent(root, realRoot, link.link(), linkPaths);
+            Path resolvedTarget = resolveLinkTarget(root, link.hard() ? root : link.link().getParent(), link.target(), linkPaths);
+            if (link.hard() && (linkPaths.contains(resolvedTarget) || Files.isSymbolicLink(resolvedTarget))) {
+                throw new IOException("Lien physique vers un lien symbolique : " + link.target());
+            }
+            if (Files.exists(resolvedTarget) && !resolvedTarget.toRealPath().startsWith(realRoot)) {
+                throw new IOException("Cible de lien hors du répertoire de destination : " + link.target());
+            }
+
+            Files.createDirectories(link.link().getParent());
+            Files.deleteIfExists(link.link());
+            if (link.hard()) {
+                try {
+                    Files.createLink(link.link(), resolvedTarget);
+                } catch (UnsupportedOperationException | IOException e) {
+                    Files.copy(resolvedTarget, link.link());
+                }
+                return;
+            }
+
+            try {
+                Files.createSymbolicLink(link.link(), Paths.get(link.target()));
+            } catch (UnsupportedOperationException | IOException e) {
+                if (!Files.exists(resolvedTarget)) throw new IOException("Lien symbolique impossible : " + link.link(), e);
+                try (var stream = Files.walk(resolvedTarget)) {
+                    for (Path source : (Iterable<Path>) stream::iterator) {
+                        Files.copy(source, link.link().resolve(resolvedTarget.relativize(source).toString()), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IOException("Lien refusé : " + root.relativize(link.link()) + " -> " + link.target() + " (" + e.getMessage() + ")", e);
+        }
+    }
+
+    /**
+     * Applique les permissions d'une entrée (bits rwx de l'utilisateur, du groupe et des autres).
+     */
+    private static void setPermissions(Path target, int mode, boolean posix) throws IOException {
+        if (posix) {
+            Set<PosixFilePermission> permissions = EnumSet.noneOf(PosixFilePermission.class);
+            PosixFilePermission[] values = PosixFilePermission.values(); // OWNER_READ … OTHERS_EXECUTE
+            for (int i = 0; i < values.length; i++) {
+                if ((mode & (0400 >> i)) != 0) permissions.add(values[i]);
+            }
+            Files.setPosixFilePermissions(target, permissions);
+        } else if ((mode & 0100) != 0) {
+            target.toFile().setExecutable(true);
+        }
+    }
+
+    /**
+     * Nom d'une entrée ustar : préfixe (champ 345) et nom (champ 0).
+     */
+    private static String entryName(byte[] header) {
+        String name = parseString(header, 0, 100);
+        boolean ustar = parseString(header, 257, 6).startsWith("ustar");
+        String prefix = ustar ? parseString(header, 345, 155) : "";
+        return prefix.isEmpty() ? name : prefix + "/" + name;
+    }
+
+    /**
+     * Lit un champ numérique : octal, ou binaire (base 256) si le bit de poids fort est positionné.
+     */
+    private static long parseNumber(byte[] header, int offset, int length) {
+        if ((header[offset] & 0x80) != 0) {
+            long value = header[offset] & 0x7f;
+            for (int i = 1; i < length; i++) value = (value << 8) | (header[offset + i] & 0xff);
+            return value;
+        }
+        long value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            byte b = header[i];
+            if (b == 0) break;
+            if (b == ' ') {
+                if (value == 0) continue;
+                break;
+            }
+            value = (value << 3) + (b - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Lit un champ texte terminé par un octet nul.
+     */
+    private static String parseString(byte[] data, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && data[end] != 0) end++;
+        return new String(data, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Lit les enregistrements d'un en-tête pax ({@code "<longueur> <clé>=<valeur>\n"}).
+     */
+    private static Map<String, String> parsePax(byte[] data) throws IOException {
+        Map<String, String> records = new HashMap<>();
+        int position = 0;
+        while (position < data.length && data[position] != 0) {
+            int space = position;
+            while (space < data.length && data[space] != ' ') space++;
+            int length = Integer.parseInt(new String(data, position, space - position, StandardCharsets.US_ASCII));
+            if (length <= 0 || position + length > data.length) throw new IOException("En-tête pax invalide");
+            String record = new String(data, space + 1, position + length - space - 2, StandardCharsets.UTF_8);
+            int equals = record.indexOf('=');
+            if (equals > 0) records.put(record.substring(0, equals), record.substring(equals + 1));
+            position += length;
+        }
+        return records;
+    }
+
+    /**
+     * Vérifie la somme de contrôle d'un en-tête (champ de somme compté comme des espaces).
+     */
+    private static void verifyChecksum(byte[] header) throws IOException {
+        long expected = parseNumber(header, 148, 8);
+        long sum = 0;
+        for (int i = 0; i < BLOCK_SIZE; i++) sum += (i >= 148 && i < 156) ? ' ' : header[i] & 0xff;
+        if (sum != expected) throw new IOException("En-tête TAR corrompu (somme de contrôle invalide)");
+    }
+
+    /**
+     * Lit un bloc complet.
+     * @return false si le flux se termine avant le bloc (archive sans marqueur de fin)
+     */
+    private static boolean readBlock(InputStream in, byte[] block) throws IOException {
+        int read = in.readNBytes(block, 0, BLOCK_SIZE);
+        if (read == 0) return false;
+        if (read < BLOCK_SIZE) throw new EOFException("Archive TAR tronquée");
+        return true;
+    }
+
+    private static boolean isZeroBlock(byte[] block) {
+        for (byte b : block) if (b != 0) return false;
+        return true;
+    }
+
+    /**
+     * Lit les données d'une entrée d'extension (en-tête pax, nom long GNU).
+     */
+    private static byte[] readData(InputStream in, long size) throws IOException {
+        if (size > Integer.MAX_VALUE - BLOCK_SIZE) throw new IOException("En-tête TAR trop grand");
+        byte[] data = in.readNBytes((int) size);
+        if (data.length < size) throw new EOFException("Archive TAR tronquée");
+        skipPadding(in, size);
+        return data;
+    }
+
+    /**
+     * Saute les données d'une entrée et leur bourrage.
+     */
+    private static void skip(InputStream in, long size) throws IOException {
+        in.skipNBytes(size);
+        skipPadding(in, size);
+    }
+
+    /**
+     * Saute le bourrage qui complète les données au bloc suivant.
+     */
+    private static void skipPadding(InputStream in, long size) throws IOException {
+        long padding = (BLOCK_SIZE - size % BLOCK_SIZE) % BLOCK_SIZE;
+        in.skipNBytes(padding);
+    }
+
+}
@@ -0,0 +1,230 @@
+package com.amynna.Tools;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Index persistant des fichiers dont le hachage a déjà été vérifié.
+ * Pour chaque fichier sont mémorisés sa taille, sa date de modification, son identifiant sur le disque
+ * (inode) et son hachage. Tant que ces métadonnées n'ont pas changé, le fichier n'est pas relu :
+ * une vérification d'une installation saine ne coûte que des appels à {@code stat}.
+ * La vérification approfondie ({@link #setDeepCheck(boolean)}) ignore l'index et rehache tout ;
+ * {@link SignatureCache} suit le même réglage.
+ */
+public final class VerificationIndex {
+
+    // ---- [ ATTRIBUTS ] ----
+
+    /**
+     * Entrée de l'index.
+     * @param size Taille du fichier
+     * @param mtime Date de modification (en microsecondes)
+     * @param fileKey Identifiant du fichier sur le disque (inode), ou null si le système n'en fournit pas
+     * @param shaType Algorithme du hachage
+     * @param hash Hachage vérifié
+     */
+    private record Entry(long size, long mtime, String fileKey, String shaType, String hash) {}
+
+    /** Entrées, par chemin absolu. */
+    private static final Map<String, Entry> ENTRIES = load();
+
+    /** Indique si l'index a été modifié depuis le dernier enregistrement. */
+    private static volatile boolean dirty = false;
+
+    /** Vérification approfondie : l'index est ignoré. */
+    private static volatile boolean deepCheck = AppProperties.DEEP_CHECK;
+
+    private VerificationIndex() {
+        // Constructeur privé pour empêcher l'instanciation
+        Logger.fatal("VerificationIndex ne peut pas être instancié.");
+    }
+
+    // ---- [ MÉTHODES PUBLIQUES ] ----
+
+    /**
+     * Vérifie le hachage d'un fichier, sans le relire si l'index indique qu'il n'a pas changé
+     * depuis une vérification réussie.
+     * @param file Fichier à vérifier
+     * @param expectedHash Hachage attendu
+     * @param shaType Algorithme de hachage
+     * @return true si le fichier existe et que son hachage correspond
+     */
+    public static boolean verify(File file, String expectedHash, String shaType) {
+        if (file == null || expectedHash == null) return false;
+        Path path = file.toPath();
+        String key = key(path);
+
+        Entry current = describe(path, shaType, null);
+        if (current == null) {
+            if (ENTRIES.remove(key) != null) dirty = true;
+            return false;
+        }
+
+        Entry known = ENTRIES.get(key);
+        if (!deepCheck && known != null && known.hash() != null && sameFile(known, current)
+                && known.hash().equalsIgnoreCase(expectedHash)) {
+            return true;
+        }
+
+        String hash = FileManager.calculSHA(file, shaType);
+        if (hash == null) return false;
+        // Hachage mémorisé même s'il ne correspond pas : un fichier corrompu inchangé n'est pas relu non plus
+        ENTRIES.put(key, new Entry(current.size(), current.mtime(), current.fileKey(), shaType, hash.toLowerCase()));
+        dirty = true;
+        return hash.equalsIgnoreCase(expectedHash);
+    }
+
+    /**
+     * Donne le hachage d'un fichier, sans le relire si l'index indique qu'il n'a pas changé.
+     * @param file Fichier à hacher
+     * @param shaType Algorithme de hachage
+     * @return Le hachage (minuscules), ou null si le fichier n'existe pas ou est illisible
+     */
+    public static String hash(File file, String shaType) {
+        Path path = file.toPath();
+        String key = key(path);
+
+        Entry current = describe(path, shaType, null);
+        if (current == null) return null;
+
+        Entry known = ENTRIES.get(key);
+        if (!deepCheck && known != null && known.hash() != null && sameFile(known, current)) return known.hash();
+
+        String hash = FileManager.calculSHA(file, shaType);
+        if (hash == null) return null;
+        ENTRIES.put(key, new Entry(current.size(), current.mtime(), current.fileKey(), shaType, hash.toLowerCase()));
+        dirty = true;
+        return hash.toLowerCase();
+    }
+
+    /**
+     * Enregistre un fichier dont le hachage vient d'être vérifié (après un téléchargement par exemple).
+     * @param file Fichier vérifié
+     * @param hash Hachage du fichier
+     * @param shaType Algorithme de hachage
+     */
+    public static void record(File file, String hash, String shaType) {
+        Entry entry = describe(file.toPath(), shaType, hash.toLowerCase());
+        if (entry == null) return;
+        ENTRIES.put(key(file.toPath()), entry);
+        dirty = true;
+    }
+
+    /**
+     * Active ou désactive la vérification approfondie (rehachage de tous les fichiers).
+     * @param enabled true pour ignorer l'index
+     */
+    public static void setDeepCheck(boolean enabled) {
+        deepCheck = enabled;
+    }
+
+    /**
+     * Indique si la vérification approfondie est active : aucun résultat mémorisé ne doit être réutilisé.
+     * @return true si tous les fichiers doivent être revérifiés
+     */
+    public static boolean isDeepCheck() {
+        return deepCheck;
+    }
+
+    /**
+     * Enregistre l'index sur le disque, sans les fichiers qui n'existent plus.
+     */
+    public static synchronized void save() {
+        if (!dirty) return;
+        dirty = false;
+
+        ENTRIES.keySet().removeIf(path -> !Files.isRegularFile(Paths.get(path)));
+
+        JSONObject json = new JSONObject();
+        for (Map.Entry<String, Entry> entry : ENTRIES.entrySet()) {
+            Entry value = entry.getValue();
+            JSONObject item = new JSONObject()
+                    .put("size", value.size())
+                    .put("mtime", value.mtime())
+                    .put("sha_type", value.shaType())
+                    .put("hash", value.hash());
+            if (value.fileKey() != null) item.put("file_key", value.fileKey());
+            json.put(entry.getKey(), item);
+        }
+
+        Path indexFile = AppProperties.VERIFICATION_INDEX_FILE.toPath();
+        Path temp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(indexFile.getParent());
+            Files.writeString(temp, json.toString(), StandardCharsets.UTF_8);
+            Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Logger.error("Impossible d'enregistrer l'index de vérification : " + e.getMessage());
+        }
+    }
+
+    // ---- [ MÉTHODES PRIVÉES ] ----
+
+    /**
+     * Lit les métadonnées d'un fichier.
+     * @return L'entrée décrivant le fichier (avec le hachage donné), ou null s'il n'existe pas
+     */
+    private static Entry describe(Path path, String shaType, String hash) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) return null;
+            Object fileKey = attributes.fileKey();
+            return new Entry(
+                    attributes.size(),
+                    attributes.lastModifiedTime().to(TimeUnit.MICROSECONDS),
+                    fileKey == null ? null : fileKey.toString(),
+                    shaType,
+                    hash
+            );
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Indique si deux descriptions correspondent au même contenu (mêmes taille, date, inode et algorithme).
+     */
+    private static boolean sameFile(Entry known, Entry current) {
+        return known.size() == current.size()
+                && known.mtime() == current.mtime()
+                && known.shaType().equals(current.shaType())
+                && (known.fileKey() == null ? current.fileKey() == null : known.fileKey().equals(current.fileKey()));
+    }
+
+    private static String key(Path path) {
+        return path.toAbsolutePath().normalize().toString();
+    }
+
+    /**
+     * Charge l'index enregistré, s'il existe.
+     */
+    private static Map<String, Entry> load() {
+        Map<String, Entry> entries = new ConcurrentHashMap<>();
+        File indexFile = AppProperties.VERIFICATION_INDEX_FILE;
+        if (!indexFile.isFile()) return entries;
+
+        JSONObject json = FileManager.openJsonFile(indexFile);
+        if (json == null) return entries;
+
+        for (String path : json.keySet()) {
+            JSONObject item = json.getJSONObject(path);
+            entries.put(path, new Entry(
+                    item.getLong("size"),
+                    item.getLong("mtime"),
+                    item.optString("file_key", null),
+                    item.getString("sha_type"),
+                    item.getString("hash")
+            ));
+        }
+        return entries;
+    }
+
+}
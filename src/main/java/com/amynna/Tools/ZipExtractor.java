@@ -0,0 +1,172 @@
+package com.amynna.Tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Extraction parallèle d'archives ZIP (ou JAR), par accès direct aux entrées.
+ * Le répertoire central est lu d'abord : les répertoires sont créés, chaque fichier est préalloué
+ * à sa taille décompressée, puis les entrées sont décompressées en parallèle, les plus grosses d'abord.
+ * Les entrées dont le chemin sortirait du répertoire de destination (ZIP Slip) sont ignorées.
+ */
+public final class ZipExtractor {
+
+    // ---- [ ATTRIBUTS ] ----
+
+    /** Taille du tampon de décompression de chaque thread. */
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Fichier à extraire.
+     * @param zip Archive contenant l'entrée
+     * @param entry Entrée de l'archive
+     * @param target Emplacement du fichier extrait
+     */
+    private record Task(ZipFile zip, ZipEntry entry, Path target) {}
+
+    private ZipExtractor() {
+        // Constructeur privé pour empêcher l'instanciation
+        Logger.fatal("ZipExtractor ne peut pas être instancié.");
+    }
+
+    // ---- [ MÉTHODES PUBLIQUES ] ----
+
+    /**
+     * Extrait des archives dans un même répertoire.
+     * Si plusieurs archives contiennent le même fichier, la dernière archive de la liste l'emporte
+     * (comme une extraction successive).
+     * @param archives Archives à extraire, dans l'ordre
+     * @param destDir Répertoire de destination
+     * @return true si toutes les entrées valides ont été extraites
+     */
+    public static boolean extract(List<File> archives, Path destDir) {
+
+        Path root = destDir.toAbsolutePath().normalize();
+        List<ZipFile> zips = new ArrayList<>();
+
+        try {
+            Files.createDirectories(root);
+
+            // 1. Lecture des répertoires centraux : une seule tâche par fichier de destination
+            Map<Path, Task> tasks = new LinkedHashMap<>();
+            for (File archive : archives) {
+                ZipFile zip = new ZipFile(archive);
+                zips.add(zip);
+                Enumeration<? extends ZipEntry> entries = zip.entries();
+                while (entries.hasMoreElements()) {
+                    ZipEntry entry = entries.nextElement();
+                    Path target = root.resolve(entry.getName()).normalize();
+
+                    // ⚠️ Sécurité : empêcher les chemins malicieux (ZIP Slip)
+                    if (!target.startsWith(root)) {
+                        Logger.error("Entrée ZIP malicieuse détectée : " + entry.getName() + " - extraction ignorée.");
+                        continue;
+                    }
+
+                    if (entry.isDirectory()) {
+                        Files.createDirectories(target);
+                    } else {
+                        tasks.remove(target);
+                        tasks.put(target, new Task(zip, entry, target));
+                    }
+                }
+            }
+
+            // 2. Décompression parallèle, les plus grosses entrées d'abord pour équilibrer les threads
+            List<Task> ordered = new ArrayList<>(tasks.values());
+            ordered.sort(Comparator.comparingLong((Task task) -> task.entry().getSize()).reversed());
+            return runAll(ordered);
+
+        } catch (IOException e) {
+            Logger.error("Erreur lors de la décompression du fichier ZIP : " + e.getMessage());
+            return false;
+        } finally {
+            for (ZipFile zip : zips) {
+                try {
+                    zip.close();
+                } catch (IOException ignored) {
+                    // Archive en lecture seule : rien à perdre
+                }
+            }
+        }
+    }
+
+    // ---- [ MÉTHODES PRIVÉES ] ----
+
+    /**
+     * Exécute les tâches d'extraction sur un pool de threads.
+     * @return true si toutes les tâches ont réussi
+     */
+    private static boolean runAll(List<Task> tasks) {
+        if (tasks.isEmpty()) return true;
+
+        int threads = Math.min(AppProperties.EXTRACT_THREADS, tasks.size());
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "zip-extract");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Future<?>> results = new ArrayList<>(tasks.size());
+            for (Task task : tasks) results.add(pool.submit(() -> {
+                extractEntry(task);
+                return null;
+            }));
+
+            boolean success = true;
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    results.get(i).get();
+                } catch (ExecutionException e) {
+                    success = false;
+                    Logger.error("Impossible d'extraire " + tasks.get(i).entry().getName() + " : " + e.getCause().getMessage());
+                }
+            }
+            return success;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Décompresse une entrée dans son fichier, préalloué à la taille annoncée par le répertoire central.
+     */
+    private static void extractEntry(Task task) throws IOException {
+        Files.createDirectories(task.target().getParent());
+        long size = task.entry().getSize();
+
+        try (InputStream in = task.zip().getInputStream(task.entry());
+             RandomAccessFile file = new RandomAccessFile(task.target().toFile(), "rw");
+             FileChannel out = file.getChannel()) {
+
+            if (size >= 0) file.setLength(size);
+
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            long position = 0;
+            int bytesRead;
+            while ((bytesRead = in.read(buffer)) != -1) {
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, bytesRead);
+                while (chunk.hasRemaining()) position += out.write(chunk, position);
+            }
+
+            // Taille annoncée erronée : le fichier garde la taille réellement décompressée
+            if (position != size) out.truncate(position);
+        }
+    }
+
+}
@@ -0,0 +1,55 @@
+package tests;
+
+import com.amynna.Tools.BandwidthLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedList;
+import java.util.List;
+
+public class testBandwidthLimiter {
+
+
+    @Test
+    public void testGlobalRate() throws InterruptedException {
+
+        BandwidthLimiter.setGlobalRate(1024 * 1024); // 1 Mio/s
+
+        // 4 threads consomment 3 Mio au total ; le seau repart vide après setGlobalRate, soit environ 3 s
+        List<Thread> threads = new LinkedList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int j = 0; j < 96; j++) BandwidthLimiter.acquire(8192);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) thread.join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        BandwidthLimiter.setGlobalRate(0);
+
+        System.out.println("3 Mio consommés en " + seconds + " s");
+        assert seconds >= 2.7 : "Le débit global n'est pas respecté";
+
+    }
+
+    @Test
+    public void testUnlimited() throws InterruptedException {
+
+        BandwidthLimiter.setGlobalRate(0);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 10_000; i++) BandwidthLimiter.acquire(8192);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        assert seconds < 1 : "Un débit illimité ne doit pas ralentir les téléchargements";
+
+    }
+
+
+}
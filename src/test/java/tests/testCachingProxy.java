@@ -0,0 +1,151 @@
+package tests;
+
+import com.amynna.Tools.BlobStore;
+import com.amynna.Tools.CachingProxy;
+import com.amynna.Tools.FileManager;
+import com.amynna.Tools.HttpTransport;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class testCachingProxy {
+
+    /** Nombre de requêtes reçues par l'origine de test. */
+    private final AtomicInteger originHits = new AtomicInteger();
+
+    /**
+     * Démarre une origine locale servant un contenu aléatoire sous /file/<nom>.
+     */
+    private HttpServer startOrigin(byte[] content) throws Exception {
+        HttpServer origin = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        origin.createContext("/file/", exchange -> {
+            originHits.incrementAndGet();
+            exchange.sendResponseHeaders(200, content.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(content);
+            }
+            exchange.close();
+        });
+        origin.start();
+        return origin;
+    }
+
+    /**
+     * Démarre un proxy local qui ne relaie que l'origine de test.
+     */
+    private static CachingProxy startProxy(HttpServer origin, Path cacheDir, long maxSize) throws Exception {
+        String allowed = "http://127.0.0.1:" + origin.getAddress().getPort() + "/file/";
+        CachingProxy proxy = new CachingProxy(new InetSocketAddress("127.0.0.1", 0), cacheDir, maxSize, List.of(allowed));
+        proxy.start();
+        return proxy;
+    }
+
+    private static byte[] randomContent(int size) {
+        byte[] content = new byte[size];
+        new Random().nextBytes(content);
+        return content;
+    }
+
+    @Test
+    public void testDownloadThroughProxy() throws Exception {
+
+        byte[] content = randomContent(256 * 1024);
+        String sha1 = FileManager.toHex(MessageDigest.getInstance(FileManager.SHA1).digest(content));
+
+        HttpServer origin = startOrigin(content);
+        Path cacheDir = Files.createTempDirectory("proxy-cache");
+        CachingProxy proxy = startProxy(origin, cacheDir, 64L * 1024 * 1024);
+        HttpTransport.setProxy("http://127.0.0.1:" + proxy.getPort());
+
+        try {
+            String url = "http://127.0.0.1:" + origin.getAddress().getPort() + "/file/lib-" + sha1 + ".jar";
+
+            // Deux machines (deux destinations) téléchargent le même fichier
+            for (int i = 0; i < 2; i++) {
+                Path destination = Files.createTempDirectory("machine-" + i).resolve("lib.jar");
+                File file = FileManager.downloadFileAndVerifySha(url, destination.toString(), sha1, FileManager.SHA1);
+                assert file != null && file.length() == content.length : "Téléchargement via le proxy échoué";
+                FileManager.deleteFileIfExists(BlobStore.getBlobPath(sha1, FileManager.SHA1).toFile());
+            }
+
+            assert originHits.get() == 1 : "L'origine a été sollicitée " + originHits.get() + " fois";
+            assert proxy.getHits() == 1 && proxy.getMisses() == 1;
+
+        } finally {
+            HttpTransport.setProxy(null);
+            proxy.stop();
+            origin.stop(0);
+        }
+
+    }
+
+    @Test
+    public void testRangeAndEviction() throws Exception {
+
+        byte[] content = randomContent(600 * 1024);
+        HttpServer origin = startOrigin(content);
+        Path cacheDir = Files.createTempDirectory("proxy-cache");
+        // Cache plus petit que deux fichiers : le moins récemment utilisé est évincé
+        CachingProxy proxy = startProxy(origin, cacheDir, 1024 * 1024);
+        HttpTransport.setProxy("http://127.0.0.1:" + proxy.getPort());
+
+        try {
+            String base = "http://127.0.0.1:" + origin.getAddress().getPort() + "/file/";
+
+            // Requête partielle servie depuis le cache
+            HttpResponse<InputStream> partial = HttpTransport.openStream(
+                    HttpTransport.request(HttpTransport.proxied(base + "a.bin")).header("Range", "bytes=100-199").GET().build());
+            byte[] body = partial.body().readAllBytes();
+            assert partial.statusCode() == 206 && body.length == 100;
+            assert body[0] == content[100] && body[99] == content[199];
+
+            // Deuxième fichier : le premier est évincé
+            assert HttpTransport.head(HttpTransport.proxied(base + "b.bin")) == 200;
+            assert HttpTransport.head(HttpTransport.proxied(base + "a.bin")) == 200;
+
+            assert originHits.get() == 3 : "Le fichier évincé aurait dû être retéléchargé";
+
+        } finally {
+            HttpTransport.setProxy(null);
+            proxy.stop();
+            origin.stop(0);
+        }
+
+    }
+
+    @Test
+    public void testUnknownOriginRefused() throws Exception {
+
+        HttpServer origin = startOrigin(randomContent(1024));
+        CachingProxy proxy = startProxy(origin, Files.createTempDirectory("proxy-cache"), 1024 * 1024);
+        HttpTransport.setProxy("http://127.0.0.1:" + proxy.getPort());
+
+        try {
+            String port = String.valueOf(origin.getAddress().getPort());
+            // Autre chemin, autre hôte, identifiants glissés dans l'URL : le proxy n'est pas un relais ouvert
+            assert HttpTransport.head(HttpTransport.proxied("http://127.0.0.1:" + port + "/admin/x")) == 403;
+            assert HttpTransport.head(HttpTransport.proxied("http://localhost:" + port + "/file/x")) == 403;
+            assert HttpTransport.head(HttpTransport.proxied("http://127.0.0.1:" + port + "@example.com/file/x")) == 403;
+            assert HttpTransport.head(HttpTransport.proxied("http://127.0.0.1:" + port + "/file/../admin/x")) == 403;
+            assert originHits.get() == 0 : "Une origine refusée a été contactée";
+
+        } finally {
+            HttpTransport.setProxy(null);
+            proxy.stop();
+            origin.stop(0);
+        }
+
+    }
+
+}
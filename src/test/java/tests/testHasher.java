@@ -0,0 +1,57 @@
+package tests;
+
+import com.amynna.Tools.FileManager;
+import com.amynna.Tools.Hasher;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+public class testHasher {
+
+    private static String reference(byte[] data, String algorithm) throws NoSuchAlgorithmException {
+        byte[] hash = MessageDigest.getInstance(algorithm).digest(data);
+        StringBuilder hex = new StringBuilder();
+        for (byte b : hash) hex.append(String.format("%02x", b));
+        return hex.toString();
+    }
+
+    @Test
+    public void testMultiDigest() throws IOException, NoSuchAlgorithmException {
+
+        // Un petit fichier (lu par tampon) et un gros fichier (projeté en mémoire, sur plusieurs fenêtres)
+        for (int size : new int[] { 0, 1000, 70 * 1024 * 1024 + 17 }) {
+            byte[] data = new byte[size];
+            new Random(size).nextBytes(data);
+            Path file = Files.createTempFile("hasher", ".bin");
+            Files.write(file, data);
+
+            Map<String, String> hashes = Hasher.hash(file, FileManager.SHA1, FileManager.SHA512);
+            assert hashes.get(FileManager.SHA1).equals(reference(data, FileManager.SHA1)) : "SHA-1 invalide pour " + size + " octets";
+            assert hashes.get(FileManager.SHA512).equals(reference(data, FileManager.SHA512)) : "SHA-512 invalide pour " + size + " octets";
+
+            // Le digest réutilisé ne garde rien du calcul précédent
+            assert Hasher.hash(file, FileManager.SHA1).equals(hashes.get(FileManager.SHA1));
+            Files.delete(file);
+        }
+
+    }
+
+    @Test
+    public void testHex() {
+
+        byte[] bytes = { 0x00, 0x0f, (byte) 0xa5, (byte) 0xff };
+        assert Hasher.toHex(bytes).equals("000fa5ff");
+        assert Arrays.equals(Hasher.fromHex("000FA5ff"), bytes);
+        assert Hasher.fromHex("0g") == null;
+        assert Hasher.fromHex("abc") == null;
+
+    }
+
+}
@@ -0,0 +1,61 @@
+package tests;
+
+import com.amynna.Tools.FileManager;
+import com.amynna.Tools.KeyUtil;
+import com.amynna.Tools.MerkleTree;
+import com.amynna.Tools.SignedFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.List;
+
+public class testMerkle {
+
+    @Test
+    public void testSignAndDiff() throws IOException, GeneralSecurityException {
+
+        Path dir = Files.createTempDirectory("merkle").resolve("config");
+        Files.createDirectories(dir.resolve("mods/options"));
+        Files.createDirectories(dir.resolve("shaders"));
+        Files.writeString(dir.resolve("options.txt"), "fov:70");
+        Files.writeString(dir.resolve("mods/options/a.toml"), "a = 1");
+        Files.writeString(dir.resolve("mods/options/b.toml"), "b = 2");
+        Files.writeString(dir.resolve("shaders/pack.zip"), "shader");
+        Path signDir = Files.createDirectories(dir.getParent().resolve("signatures"));
+
+        KeyPair keys = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        SignedFile signed = KeyUtil.sign(dir.toFile(), signDir.toString(), keys.getPrivate());
+        assert signed != null && signed.signature().getName().equals("config" + MerkleTree.TREE_EXTENSION);
+
+        // Signatures par fichier conservées pour les clients qui les téléchargent
+        assert Files.isRegularFile(signDir.resolve("config.sig/options.txt.sig"));
+        assert Files.isRegularFile(signDir.resolve("config.sig/mods.sig/options.sig/a.toml.sig"));
+
+        // Une seule signature, sur l'arbre
+        File treeSignature = new File(signed.signature().getPath() + ".sig");
+        assert KeyUtil.verifyFile(new SignedFile(signed.signature(), treeSignature), keys.getPublic());
+
+        MerkleTree.Node expected = MerkleTree.load(signed.signature());
+        assert expected != null;
+        assert MerkleTree.diff(expected, dir).isEmpty();
+
+        // Modifications : seuls les chemins concernés sont signalés
+        Files.writeString(dir.resolve("mods/options/b.toml"), "b = 20000");
+        FileManager.deleteFileIfExists(dir.resolve("shaders").toFile());
+        Files.writeString(dir.resolve("extra.txt"), "?");
+
+        List<String> differences = MerkleTree.diff(expected, dir);
+        assert differences.equals(List.of("extra.txt", "mods/options/b.toml", "shaders")) : differences;
+
+        // Fichiers à récupérer : ceux de l'arbre signé qui diffèrent, sans les fichiers en trop
+        assert MerkleTree.filesToFetch(expected, differences).keySet().equals(java.util.Set.of("mods/options/b.toml", "shaders/pack.zip"));
+
+    }
+
+}
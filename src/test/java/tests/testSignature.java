@@ -0,0 +1,64 @@
+package tests;
+
+import com.amynna.Tools.KeyUtil;
+import com.amynna.Tools.SignedFile;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.*;
+import java.util.Base64;
+
+public class testSignature {
+
+    @Test
+    public void testPrehashSignature() throws IOException, GeneralSecurityException {
+
+        KeyPair keys = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        Path dir = Files.createTempDirectory("signature");
+        File file = dir.resolve("launcher.jar").toFile();
+        Files.write(file.toPath(), new byte[3 * 1024 * 1024 + 5]);
+
+        SignedFile signedFile = KeyUtil.sign(file, dir.toString(), keys.getPrivate());
+        assert signedFile != null;
+
+        // Nouveau format : mode et signature dans un objet JSON
+        JSONObject json = new JSONObject(Files.readString(signedFile.signature().toPath()));
+        assert json.getString("alg").equals("Ed25519ph");
+        // Empreinte de la clé du signataire, identique qu'elle soit calculée depuis la clé privée ou publique
+        assert json.getString("kid").equals(KeyUtil.getKeyFingerprint(keys.getPublic()));
+        assert KeyUtil.verifyFile(signedFile, keys.getPublic());
+
+        // Autre clé, puis fichier modifié
+        KeyPair other = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        assert !KeyUtil.verifyFile(signedFile, other.getPublic());
+        Files.write(file.toPath(), new byte[] { 1 }, java.nio.file.StandardOpenOption.APPEND);
+        assert !KeyUtil.verifyFile(signedFile, keys.getPublic());
+
+    }
+
+    @Test
+    public void testLegacySignature() throws IOException, GeneralSecurityException {
+
+        KeyPair keys = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        Path dir = Files.createTempDirectory("signature");
+        byte[] data = "contenu signé à l'ancienne".getBytes(StandardCharsets.UTF_8);
+        File file = dir.resolve("manifest.json").toFile();
+        Files.write(file.toPath(), data);
+
+        // Ancien format : Ed25519 pur, signature en Base64 seule
+        Signature sig = Signature.getInstance("Ed25519");
+        sig.initSign(keys.getPrivate());
+        sig.update(data);
+        File signature = dir.resolve("manifest.json.sig").toFile();
+        Files.write(signature.toPath(), Base64.getEncoder().encode(sig.sign()));
+
+        assert KeyUtil.verifyFile(new SignedFile(file, signature), keys.getPublic());
+
+    }
+
+}
@@ -0,0 +1,158 @@
+package tests;
+
+import com.amynna.Tools.TarGzExtractor;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.zip.GZIPOutputStream;
+
+public class testTarGz {
+
+    /**
+     * Écrit une entrée TAR (en-tête ustar et données complétées au bloc).
+     */
+    private static void entry(ByteArrayOutputStream tar, String name, char type, int mode, String linkName, byte[] data) {
+        byte[] header = new byte[512];
+        put(header, 0, name);
+        put(header, 100, String.format("%07o", mode));
+        put(header, 108, "0000000");
+        put(header, 116, "0000000");
+        put(header, 124, String.format("%011o", data.length));
+        put(header, 136, String.format("%011o", 1_700_000_000L));
+        header[156] = (byte) type;
+        if (linkName != null) put(header, 157, linkName);
+        put(header, 257, "ustar");
+        put(header, 263, "00");
+
+        long sum = 0;
+        for (int i = 0; i < 512; i++) sum += (i >= 148 && i < 156) ? ' ' : header[i] & 0xff;
+        put(header, 148, String.format("%06o", sum));
+        header[155] = ' ';
+
+        tar.writeBytes(header);
+        tar.writeBytes(data);
+        tar.writeBytes(new byte[(512 - data.length % 512) % 512]);
+    }
+
+    private static void put(byte[] header, int offset, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(bytes, 0, header, offset, bytes.length);
+    }
+
+    private static byte[] gzip(ByteArrayOutputStream tar) throws IOException {
+        tar.writeBytes(new byte[1024]); // Fin de l'archive
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(tar.toByteArray());
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testExtract() throws IOException {
+
+        String longName = "jdk/" + "a".repeat(120) + "/release";
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        entry(tar, "jdk/", '5', 0755, null, new byte[0]);
+        entry(tar, "jdk/bin/java", '0', 0755, null, "#!/bin/sh\n".getBytes(StandardCharsets.UTF_8));
+        entry(tar, "././@LongLink", 'L', 0644, null, (longName + "\0").getBytes(StandardCharsets.UTF_8));
+        entry(tar, "ignored", '0', 0644, null, "JAVA_VERSION=\"17\"".getBytes(StandardCharsets.UTF_8));
+        entry(tar, "jdk/bin/java-link", '2', 0777, "java", new byte[0]);
+
+        Path destDir = Files.createTempDirectory("targz");
+        int count = TarGzExtractor.extract(new ByteArrayInputStream(gzip(tar)), destDir);
+
+        assert count == 4 : count + " entrées extraites";
+        assert Files.readString(destDir.resolve("jdk/bin/java")).equals("#!/bin/sh\n");
+        assert Files.readString(destDir.resolve(longName)).equals("JAVA_VERSION=\"17\"") : "Nom long GNU non pris en charge";
+        assert Files.isSymbolicLink(destDir.resolve("jdk/bin/java-link"));
+        assert Files.readSymbolicLink(destDir.resolve("jdk/bin/java-link")).toString().equals("java");
+        assert Files.getPosixFilePermissions(destDir.resolve("jdk/bin/java")).contains(PosixFilePermission.OWNER_EXECUTE);
+
+    }
+
+    @Test
+    public void testPathTraversal() throws IOException {
+
+        Path parent = Files.createTempDirectory("targz");
+        Path destDir = Files.createDirectory(parent.resolve("dest"));
+
+        // Fichier hors de la destination
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        entry(tar, "../evil.txt", '0', 0644, null, "evil".getBytes(StandardCharsets.UTF_8));
+        boolean rejected = false;
+        try {
+            TarGzExtractor.extract(new ByteArrayInputStream(gzip(tar)), destDir);
+        } catch (IOException e) {
+            rejected = true;
+        }
+        assert rejected && !Files.exists(parent.resolve("evil.txt")) : "Chemin hors de la destination accepté";
+
+        // Lien symbolique vers l'extérieur
+        tar = new ByteArrayOutputStream();
+        entry(tar, "escape", '2', 0777, "../../etc", new byte[0]);
+        rejected = false;
+        try {
+            TarGzExtractor.extract(new ByteArrayInputStream(gzip(tar)), destDir);
+        } catch (IOException e) {
+            rejected = true;
+        }
+        assert rejected && !Files.exists(destDir.resolve("escape"), java.nio.file.LinkOption.NOFOLLOW_LINKS) : "Lien hors de la destination accepté";
+
+    }
+
+    @Test
+    public void testChainedLinks() throws IOException {
+
+        Path parent = Files.createTempDirectory("targz");
+        Path destDir = Files.createDirectory(parent.resolve("dest"));
+        Files.writeString(parent.resolve("secret.txt"), "secret");
+
+        // s1 -> s2/.. reste dans la destination en apparence, mais s2 -> . en fait le parent de la destination
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        entry(tar, "s2", '2', 0777, ".", new byte[0]);
+        entry(tar, "s1", '2', 0777, "s2/..", new byte[0]);
+        entry(tar, "s1/victim.txt", '2', 0777, "../secret.txt", new byte[0]);
+        entry(tar, "copy.txt", '1', 0644, "s1/secret.txt", new byte[0]);
+        boolean rejected = false;
+        try {
+            TarGzExtractor.extract(new ByteArrayInputStream(gzip(tar)), destDir);
+        } catch (IOException e) {
+            rejected = true;
+        }
+        assert rejected : "Chaîne de liens hors de la destination acceptée";
+        assert !Files.exists(destDir.resolve("s1"), java.nio.file.LinkOption.NOFOLLOW_LINKS) : "Lien traversant un lien créé";
+        assert !Files.exists(destDir.resolve("copy.txt")) && !Files.exists(parent.resolve("victim.txt"), java.nio.file.LinkOption.NOFOLLOW_LINKS);
+
+        // Lien qui traverse un lien créé plus loin dans l'archive
+        destDir = Files.createDirectory(parent.resolve("dest2"));
+        tar = new ByteArrayOutputStream();
+        entry(tar, "a", '2', 0777, "b/../secret.txt", new byte[0]);
+        entry(tar, "b", '2', 0777, ".", new byte[0]);
+        rejected = false;
+        try {
+            TarGzExtractor.extract(new ByteArrayInputStream(gzip(tar)), destDir);
+        } catch (IOException e) {
+            rejected = true;
+        }
+        assert rejected && !Files.exists(destDir.resolve("a"), java.nio.file.LinkOption.NOFOLLOW_LINKS) : "Lien traversant un lien ultérieur accepté";
+
+        // Liens relatifs ordinaires (disposition des JDK) toujours acceptés
+        destDir = Files.createDirectory(parent.resolve("dest3"));
+        tar = new ByteArrayOutputStream();
+        entry(tar, "legal/java.base/NOTICE", '0', 0644, null, "notice".getBytes(StandardCharsets.UTF_8));
+        entry(tar, "legal/java.xml/NOTICE", '2', 0777, "../java.base/NOTICE", new byte[0]);
+        entry(tar, "legal/NOTICE", '1', 0644, "legal/java.base/NOTICE", new byte[0]);
+        TarGzExtractor.extract(new ByteArrayInputStream(gzip(tar)), destDir);
+        assert Files.readString(destDir.resolve("legal/java.xml/NOTICE")).equals("notice");
+        assert Files.readString(destDir.resolve("legal/NOTICE")).equals("notice");
+
+    }
+
+}